@@ -0,0 +1,180 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex;
+
+import java.math.BigInteger;
+
+/**
+ * Mutable signed 128-bit EMC amount made of two longs.
+ *
+ * Used for EMC that block entities hold on to between hand-overs, which can
+ * grow past Long.MAX_VALUE but is updated far too often to allocate a new
+ * {@link BigInteger} every time. Arithmetic is exact two's complement on the
+ * (hi, lo) pair, with lo treated as unsigned. {@link BigInteger} is only
+ * involved when handing the amount to a knowledge provider or saving it.
+ */
+public final class EmcAccumulator implements Comparable<EmcAccumulator> {
+	private static final BigInteger UNSIGNED_LONG_MASK = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+	private long hi;
+	private long lo;
+
+	public EmcAccumulator() {
+	}
+
+	public EmcAccumulator(long value) {
+		set(value);
+	}
+
+	public boolean isZero() {
+		return (hi | lo) == 0L;
+	}
+
+	public int signum() {
+		return hi < 0L ? -1 : isZero() ? 0 : 1;
+	}
+
+	public void clear() {
+		hi = 0L;
+		lo = 0L;
+	}
+
+	public void set(long value) {
+		hi = value >> 63;
+		lo = value;
+	}
+
+	public void set(EmcAccumulator other) {
+		hi = other.hi;
+		lo = other.lo;
+	}
+
+	/**
+	 * Set from a BigInteger, clamped to the 128-bit range
+	 */
+	public void set(BigInteger value) {
+		if (value.bitLength() > 127) {
+			hi = value.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+			lo = value.signum() < 0 ? 0L : -1L;
+		} else {
+			hi = value.shiftRight(64).longValue();
+			lo = value.longValue();
+		}
+	}
+
+	private void add(long h, long l) {
+		long r = lo + l;
+		hi += h + (Long.compareUnsigned(r, lo) < 0 ? 1L : 0L);
+		lo = r;
+	}
+
+	private void subtract(long h, long l) {
+		long r = lo - l;
+		hi -= h + (Long.compareUnsigned(lo, l) < 0 ? 1L : 0L);
+		lo = r;
+	}
+
+	public void add(long value) {
+		add(value >> 63, value);
+	}
+
+	public void add(EmcAccumulator other) {
+		add(other.hi, other.lo);
+	}
+
+	public void subtract(long value) {
+		subtract(value >> 63, value);
+	}
+
+	public void subtract(EmcAccumulator other) {
+		subtract(other.hi, other.lo);
+	}
+
+	/**
+	 * Add a * b, both non-negative, without overflowing
+	 */
+	public void addProduct(long a, long b) {
+		add(Math.multiplyHigh(a, b), a * b);
+	}
+
+	public int compareTo(long value) {
+		long h = value >> 63;
+		return hi != h ? Long.compare(hi, h) : Long.compareUnsigned(lo, value);
+	}
+
+	@Override
+	public int compareTo(EmcAccumulator other) {
+		return hi != other.hi ? Long.compare(hi, other.hi) : Long.compareUnsigned(lo, other.lo);
+	}
+
+	/**
+	 * Value clamped to the long range
+	 */
+	public long longValueSaturated() {
+		if (hi == (lo >> 63)) {
+			return lo;
+		}
+
+		return hi < 0L ? Long.MIN_VALUE : Long.MAX_VALUE;
+	}
+
+	public BigInteger toBigInteger() {
+		if (hi == (lo >> 63)) {
+			return BigInteger.valueOf(lo);
+		}
+
+		return BigInteger.valueOf(hi).shiftLeft(64).add(BigInteger.valueOf(lo).and(UNSIGNED_LONG_MASK));
+	}
+
+	/**
+	 * Parse the decimal string written by {@link #toString()}
+	 */
+	public static EmcAccumulator parse(String s) {
+		EmcAccumulator accumulator = new EmcAccumulator();
+
+		if (s.isEmpty() || s.equals("0")) {
+			return accumulator;
+		}
+
+		try {
+			accumulator.set(Long.parseLong(s));
+		} catch (NumberFormatException ex) {
+			accumulator.set(new BigInteger(s));
+		}
+
+		return accumulator;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof EmcAccumulator other && hi == other.hi && lo == other.lo;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hi) * 31 + Long.hashCode(lo);
+	}
+
+	@Override
+	public String toString() {
+		return hi == (lo >> 63) ? Long.toString(lo) : toBigInteger().toString();
+	}
+}
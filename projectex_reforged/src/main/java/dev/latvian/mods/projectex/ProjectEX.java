@@ -23,6 +23,9 @@ import dev.latvian.mods.projectex.block.ProjectEXBlocks;
 import dev.latvian.mods.projectex.block.entity.EnergyLinkBlockEntity;
 import dev.latvian.mods.projectex.block.entity.LinkBaseBlockEntity;
 import dev.latvian.mods.projectex.block.entity.ProjectEXBlockEntities;
+import dev.latvian.mods.projectex.integration.IntegrationHelper;
+import dev.latvian.mods.projectex.integration.ae2.AE2Integration;
+import dev.latvian.mods.projectex.integration.refinedstorage.RefinedStorageIntegration;
 import dev.latvian.mods.projectex.item.ProjectEXItems;
 import dev.latvian.mods.projectex.menu.ProjectEXMenuTypes;
 import moze_intel.projecte.api.capabilities.PECapabilities;
@@ -32,7 +35,9 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.world.item.CreativeModeTab;
 import net.minecraft.world.item.ItemStack;
 import net.neoforged.bus.api.IEventBus;
+import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
+import net.neoforged.fml.config.ModConfig;
 import net.neoforged.neoforge.capabilities.Capabilities;
 import net.neoforged.neoforge.capabilities.RegisterCapabilitiesEvent;
 import net.neoforged.neoforge.registries.DeferredRegister;
@@ -61,7 +66,7 @@ public class ProjectEX {
 					.build()
 	);
 
-	public ProjectEX(IEventBus modEventBus) {
+	public ProjectEX(IEventBus modEventBus, ModContainer modContainer) {
 		// Register all deferred registers
 		ProjectEXBlocks.REGISTRY.register(modEventBus);
 		ProjectEXItems.REGISTRY.register(modEventBus);
@@ -69,8 +74,20 @@ public class ProjectEX {
 		ProjectEXMenuTypes.REGISTRY.register(modEventBus);
 		CREATIVE_TABS.register(modEventBus);
 
+		// Register server config
+		modContainer.registerConfig(ModConfig.Type.SERVER, ProjectEXConfig.SPEC);
+
 		// Register capability event handler
 		modEventBus.addListener(this::registerCapabilities);
+
+		// Optional integrations, kept in their own classes so they only load with the mod they need
+		if (IntegrationHelper.isRefinedStorageLoaded()) {
+			RefinedStorageIntegration.init(modEventBus);
+		}
+
+		if (IntegrationHelper.isAE2Loaded()) {
+			AE2Integration.init(modEventBus);
+		}
 	}
 
 	private void registerCapabilities(RegisterCapabilitiesEvent event) {
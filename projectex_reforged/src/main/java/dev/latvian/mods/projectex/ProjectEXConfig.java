@@ -0,0 +1,102 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex;
+
+import net.neoforged.neoforge.common.ModConfigSpec;
+
+/**
+ * Server configuration for ProjectEX
+ * Stored per world in serverconfig/projectex_reforged-server.toml
+ */
+public class ProjectEXConfig {
+	public static final ModConfigSpec SPEC;
+
+	// Generators (Collectors, Relays, Power Flowers)
+	public static final ModConfigSpec.BooleanValue STAGGER_GENERATORS;
+	public static final ModConfigSpec.IntValue GENERATOR_BUDGET_PER_TICK;
+	public static final ModConfigSpec.IntValue DORMANT_PROBE_CYCLES;
+	public static final ModConfigSpec.IntValue POWER_FLOWER_SETTLE_TICKS;
+
+	// EMC
+	public static final ModConfigSpec.IntValue EMC_SYNC_INTERVAL_TICKS;
+	public static final ModConfigSpec.IntValue KLEIN_STAR_CHARGE_INTERVAL_TICKS;
+	public static final ModConfigSpec.IntValue KLEIN_STAR_FILL_SECONDS;
+
+	// Links
+	public static final ModConfigSpec.LongValue COMPRESSED_REFINED_LINK_EMC_PER_SECOND;
+
+	static {
+		ModConfigSpec.Builder builder = new ModConfigSpec.Builder();
+
+		builder.push("generators");
+
+		STAGGER_GENERATORS = builder
+				.comment("Spread generator cycles over all 20 ticks of a second based on block position,",
+						"instead of running every generator on the same tick")
+				.define("staggerGenerators", true);
+
+		GENERATOR_BUDGET_PER_TICK = builder
+				.comment("Maximum number of generator evaluations per tick in each dimension (0 = unlimited).",
+						"Generators over the budget run on the next tick with the missed cycles added, so no EMC is lost")
+				.defineInRange("generatorBudgetPerTick", 1000, 0, Integer.MAX_VALUE);
+
+		DORMANT_PROBE_CYCLES = builder
+				.comment("Collectors and relays with nowhere to send EMC go dormant until a neighbor changes.",
+						"Every this many generator cycles (1 cycle = 20 ticks) dormant ones also check whether a neighbor has free space again (0 = never)")
+				.defineInRange("dormantProbeCycles", 5, 0, 3600);
+
+		POWER_FLOWER_SETTLE_TICKS = builder
+				.comment("How often (in ticks) elapsed Power Flower output is credited to online owners.",
+						"Output is also settled on login, logout, flower changes and right-click, so this only affects how soon EMC shows up")
+				.defineInRange("powerFlowerSettleTicks", 100, 20, 72000);
+
+		builder.pop();
+
+		builder.push("emc");
+
+		EMC_SYNC_INTERVAL_TICKS = builder
+				.comment("Minimum number of ticks between two EMC sync packets to the same player.",
+						"Changes in between are merged into one sync, opening or closing a transmutation GUI always syncs right away")
+				.defineInRange("emcSyncIntervalTicks", 5, 1, 200);
+
+		KLEIN_STAR_CHARGE_INTERVAL_TICKS = builder
+				.comment("How often (in ticks) the Alchemy Table charges the star in its charging slot.",
+						"Each charge moves the EMC for the whole interval at once")
+				.defineInRange("kleinStarChargeIntervalTicks", 10, 1, 200);
+
+		KLEIN_STAR_FILL_SECONDS = builder
+				.comment("Roughly how many seconds the Alchemy Table takes to fill an empty star of any tier.",
+						"Small stars always charge at least 1000 EMC per tick")
+				.defineInRange("kleinStarFillSeconds", 60, 1, 3600);
+
+		builder.pop();
+
+		builder.push("links");
+
+		COMPRESSED_REFINED_LINK_EMC_PER_SECOND = builder
+				.comment("Most EMC a single Compressed Refined Link may spend on extractions per second (0 = unlimited).",
+						"Regular Refined Links are never limited")
+				.defineInRange("compressedRefinedLinkEmcPerSecond", 0L, 0L, Long.MAX_VALUE);
+
+		builder.pop();
+
+		SPEC = builder.build();
+	}
+}
@@ -36,8 +36,6 @@ import net.minecraft.world.level.block.BaseEntityBlock;
 import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.SoundType;
 import net.minecraft.world.level.block.entity.BlockEntity;
-import net.minecraft.world.level.block.entity.BlockEntityTicker;
-import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockBehaviour;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
@@ -65,20 +63,17 @@ public class CollectorBlock extends BaseEntityBlock {
 		return CODEC;
 	}
 
-	@Nullable
-	@Override
-	public BlockEntity newBlockEntity(BlockPos pos, BlockState state) {
-		return new CollectorBlockEntity(pos, state);
+	/**
+	 * EMC produced per cycle
+	 */
+	public long getOutput() {
+		return matter.collectorOutput;
 	}
 
 	@Nullable
 	@Override
-	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-		return (level1, blockPos, blockState, t) -> {
-			if (!level1.isClientSide && t instanceof CollectorBlockEntity tile) {
-				tile.tick();
-			}
-		};
+	public BlockEntity newBlockEntity(BlockPos pos, BlockState state) {
+		return new CollectorBlockEntity(pos, state);
 	}
 
 	@Override
@@ -90,7 +85,7 @@ public class CollectorBlock extends BaseEntityBlock {
 				player.displayClientMessage(
 					Component.literal("EMC Generation: ")
 						.withStyle(ChatFormatting.GOLD)
-						.append(Component.literal(String.format("%,d EMC/s", matter.collectorOutput))
+						.append(Component.literal(String.format("%,d EMC/s", getOutput()))
 							.withStyle(ChatFormatting.WHITE)),
 					true
 				);
@@ -105,7 +100,7 @@ public class CollectorBlock extends BaseEntityBlock {
 		tooltipComponents.add(Component.translatable("block.projectex.collector.tooltip")
 				.withStyle(ChatFormatting.GRAY));
 		tooltipComponents.add(Component.translatable("block.projectex.collector.emc_produced",
-						DECIMAL_FORMAT.format(matter.collectorOutput))
+						DECIMAL_FORMAT.format(getOutput()))
 				.withStyle(ChatFormatting.GRAY));
 	}
 
@@ -0,0 +1,84 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.block;
+
+import com.mojang.serialization.MapCodec;
+import dev.latvian.mods.projectex.Matter;
+import net.minecraft.world.level.block.BaseEntityBlock;
+
+/**
+ * A collector that does the work of 9^compression collectors of its tier
+ * with a single block entity.
+ */
+public class CompressedCollectorBlock extends CollectorBlock {
+	public static final MapCodec<CompressedCollectorBlock> CODEC = simpleCodec(properties -> new CompressedCollectorBlock(Matter.BASIC, 1));
+
+	// Highest compression level, 9^3 = 729 collectors in one block
+	public static final int MAX_COMPRESSION = 3;
+
+	public final int compression;
+	private final long output;
+
+	public CompressedCollectorBlock(Matter m, int c) {
+		super(m);
+		compression = c;
+
+		long o = m.collectorOutput;
+
+		for (int i = 0; i < c; i++) {
+			o = o > Long.MAX_VALUE / 9L ? Long.MAX_VALUE : o * 9L;
+		}
+
+		output = o;
+	}
+
+	/**
+	 * Registry name prefix of a compression level, e.g. "double_" for <matter>_double_compressed_collector
+	 */
+	public static String getPrefix(int compression) {
+		return switch (compression) {
+			case 2 -> "double_";
+			case 3 -> "triple_";
+			default -> "";
+		};
+	}
+
+	/**
+	 * Display name prefix of a compression level, e.g. "Double Compressed "
+	 */
+	public static String getDisplayPrefix(int compression) {
+		return switch (compression) {
+			case 2 -> "Double Compressed ";
+			case 3 -> "Triple Compressed ";
+			default -> "Compressed ";
+		};
+	}
+
+	@Override
+	protected MapCodec<? extends BaseEntityBlock> codec() {
+		return CODEC;
+	}
+
+	@Override
+	public long getOutput() {
+		return output;
+	}
+}
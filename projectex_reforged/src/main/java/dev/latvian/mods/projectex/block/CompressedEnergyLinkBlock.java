@@ -1,86 +0,0 @@
-/*
- * ProjectEX
- *
- * Copyright (C) 2024 LatvianModder (original author)
- * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
- *
- * This library is free software; you can redistribute it and/or
- * modify it under the terms of the GNU Lesser General Public
- * License as published by the Free Software Foundation version 3
- * of the License.
- *
- * This library is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
- * Lesser General Public License for more details.
- *
- * https://www.gnu.org/licenses/lgpl-3.0.html
- */
-
-package dev.latvian.mods.projectex.block;
-
-import com.mojang.serialization.MapCodec;
-import dev.latvian.mods.projectex.block.entity.CompressedEnergyLinkBlockEntity;
-import net.minecraft.ChatFormatting;
-import net.minecraft.core.BlockPos;
-import net.minecraft.network.chat.Component;
-import net.minecraft.world.item.Item;
-import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.TooltipFlag;
-import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.BaseEntityBlock;
-import net.minecraft.world.level.block.entity.BlockEntity;
-import net.minecraft.world.level.block.entity.BlockEntityTicker;
-import net.minecraft.world.level.block.entity.BlockEntityType;
-import net.minecraft.world.level.block.state.BlockState;
-import org.jetbrains.annotations.Nullable;
-
-import java.util.List;
-
-/**
- * Compressed Energy Link - 100x faster EMC↔FE conversion.
- *
- * Conversion rate: 1 EMC = 1000 FE (100x normal Energy Link)
- * Max throughput: 1,000,000 FE/tick (vs 10,000 FE/tick for normal Energy Link)
- */
-public class CompressedEnergyLinkBlock extends LinkBaseBlock {
-	public static final MapCodec<CompressedEnergyLinkBlock> CODEC = simpleCodec(CompressedEnergyLinkBlock::new);
-
-	public CompressedEnergyLinkBlock(Properties properties) {
-		super(properties);
-	}
-
-	public CompressedEnergyLinkBlock() {
-		super();
-	}
-
-	@Override
-	protected MapCodec<? extends BaseEntityBlock> codec() {
-		return CODEC;
-	}
-
-	@Nullable
-	@Override
-	public BlockEntity newBlockEntity(BlockPos pos, BlockState state) {
-		return new CompressedEnergyLinkBlockEntity(pos, state);
-	}
-
-	@Nullable
-	@Override
-	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-		return (level1, blockPos, blockState, t) -> {
-			if (!level1.isClientSide && t instanceof CompressedEnergyLinkBlockEntity tile) {
-				tile.tick();
-			}
-		};
-	}
-
-	@Override
-	public void appendHoverText(ItemStack stack, Item.TooltipContext context, List<Component> tooltipComponents, TooltipFlag tooltipFlag) {
-		super.appendHoverText(stack, context, tooltipComponents, tooltipFlag);
-		tooltipComponents.add(Component.translatable("block.projectex.compressed_energy_link.tooltip")
-				.withStyle(ChatFormatting.GOLD));
-		tooltipComponents.add(Component.translatable("block.projectex.compressed_energy_link.tooltip.rate")
-				.withStyle(ChatFormatting.GRAY));
-	}
-}
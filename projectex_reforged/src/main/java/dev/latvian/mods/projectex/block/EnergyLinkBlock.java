@@ -22,9 +22,14 @@ package dev.latvian.mods.projectex.block;
 import com.mojang.serialization.MapCodec;
 import dev.latvian.mods.projectex.Matter;
 import dev.latvian.mods.projectex.block.entity.EnergyLinkBlockEntity;
+import dev.latvian.mods.projectex.block.entity.ProjectEXBlockEntities;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.chat.CommonComponents;
 import net.minecraft.network.chat.Component;
+import net.minecraft.world.InteractionResult;
+import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.TooltipFlag;
@@ -34,6 +39,7 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntityTicker;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.BlockHitResult;
 import org.jetbrains.annotations.Nullable;
 
 import java.text.NumberFormat;
@@ -66,14 +72,27 @@ public class EnergyLinkBlock extends LinkBaseBlock {
 		return new EnergyLinkBlockEntity(pos, state);
 	}
 
+	@Override
+	protected InteractionResult useWithoutItem(BlockState state, Level level, BlockPos pos, Player player, BlockHitResult hitResult) {
+		if (!player.isShiftKeyDown()) {
+			return super.useWithoutItem(state, level, pos, player, hitResult);
+		}
+
+		// Sneak + right-click toggles pushing FE out of the clicked face
+		if (!level.isClientSide() && level.getBlockEntity(pos) instanceof EnergyLinkBlockEntity link) {
+			Direction face = hitResult.getDirection();
+			boolean pushing = link.getEngine().togglePush(face);
+			player.displayClientMessage(Component.translatable("block.projectex.energy_link.push", face.getName(), CommonComponents.optionStatus(pushing)), true);
+		}
+
+		return InteractionResult.SUCCESS;
+	}
+
 	@Nullable
 	@Override
 	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-		return (level1, blockPos, blockState, t) -> {
-			if (!level1.isClientSide && t instanceof EnergyLinkBlockEntity tile) {
-				tile.tick();
-			}
-		};
+		// Only needed for push mode, which returns right away when no face pushes
+		return level.isClientSide() ? null : createTickerHelper(type, ProjectEXBlockEntities.ENERGY_LINK.get(), (level1, pos, state1, link) -> link.tick());
 	}
 
 	@Override
@@ -86,8 +105,7 @@ public class EnergyLinkBlock extends LinkBaseBlock {
 				.withStyle(ChatFormatting.GOLD));
 
 		// Show conversion rate: 1 EMC = X FE
-		int emcToFeRatio = EnergyLinkBlockEntity.getEmcToFeRatio(matter);
-		tooltipComponents.add(Component.literal("1 EMC = " + formatter.format(emcToFeRatio) + " FE")
+		tooltipComponents.add(Component.literal("1 EMC = " + formatter.format(EnergyLinkBlockEntity.EMC_TO_FE_RATIO) + " FE")
 				.withStyle(ChatFormatting.GRAY));
 
 		// Show max transfer rate
@@ -22,6 +22,9 @@ package dev.latvian.mods.projectex.block;
 import com.mojang.serialization.MapCodec;
 import dev.latvian.mods.projectex.Matter;
 import dev.latvian.mods.projectex.block.entity.PowerFlowerBlockEntity;
+import dev.latvian.mods.projectex.emc.EmcLedger;
+import dev.latvian.mods.projectex.emc.OwnerCache;
+import dev.latvian.mods.projectex.generator.PowerFlowerTracker;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
@@ -37,8 +40,6 @@ import net.minecraft.world.level.block.BaseEntityBlock;
 import net.minecraft.world.level.block.RenderShape;
 import net.minecraft.world.level.block.SoundType;
 import net.minecraft.world.level.block.entity.BlockEntity;
-import net.minecraft.world.level.block.entity.BlockEntityTicker;
-import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockBehaviour;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
@@ -86,16 +87,6 @@ public class PowerFlowerBlock extends BaseEntityBlock {
 		return new PowerFlowerBlockEntity(pos, state);
 	}
 
-	@Nullable
-	@Override
-	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level level, BlockState state, BlockEntityType<T> type) {
-		return (level1, blockPos, blockState, t) -> {
-			if (!level1.isClientSide && t instanceof PowerFlowerBlockEntity tile) {
-				tile.tick();
-			}
-		};
-	}
-
 	@Override
 	protected VoxelShape getShape(BlockState state, BlockGetter level, BlockPos pos, CollisionContext context) {
 		return SHAPE;
@@ -106,6 +97,15 @@ public class PowerFlowerBlock extends BaseEntityBlock {
 		if (!level.isClientSide()) {
 			BlockEntity blockEntity = level.getBlockEntity(pos);
 			if (blockEntity instanceof PowerFlowerBlockEntity powerFlower) {
+				// Credit output produced so far
+				PowerFlowerTracker.settle(level.getServer(), powerFlower.owner);
+
+				OwnerCache.Handle owner = OwnerCache.get(powerFlower.owner);
+
+				if (owner != null) {
+					EmcLedger.flush(owner.player());
+				}
+
 				// Display owner and EMC generation rate
 				long emcPerSecond = matter.getPowerFlowerOutput();
 				player.displayClientMessage(
@@ -129,8 +129,7 @@ public class PowerFlowerBlock extends BaseEntityBlock {
 		if (entity != null) {
 			BlockEntity e = level.getBlockEntity(pos);
 			if (e instanceof PowerFlowerBlockEntity powerFlower) {
-				powerFlower.owner = entity.getUUID();
-				powerFlower.ownerName = entity.getScoreboardName();
+				powerFlower.setOwner(entity);
 			}
 		}
 	}
@@ -58,6 +58,32 @@ public class ProjectEXBlocks {
 				}
 			});
 
+	// Compressed Collectors - each level packs nine blocks of the level below
+	public static final Map<Matter, DeferredBlock<Block>> COMPRESSED_COLLECTOR = compressedCollectors(1);
+	public static final Map<Matter, DeferredBlock<Block>> DOUBLE_COMPRESSED_COLLECTOR = compressedCollectors(2);
+	public static final Map<Matter, DeferredBlock<Block>> TRIPLE_COMPRESSED_COLLECTOR = compressedCollectors(3);
+
+	private static Map<Matter, DeferredBlock<Block>> compressedCollectors(int compression) {
+		return Util.make(new LinkedHashMap<>(), map -> {
+			for (Matter matter : Matter.VALUES) {
+				map.put(matter, REGISTRY.register(matter.name + "_" + CompressedCollectorBlock.getPrefix(compression) + "compressed_collector",
+						() -> new CompressedCollectorBlock(matter, compression)));
+			}
+		});
+	}
+
+	/**
+	 * Collector blocks of a compression level, 0 being plain collectors
+	 */
+	public static Map<Matter, DeferredBlock<Block>> getCollectors(int compression) {
+		return switch (compression) {
+			case 1 -> COMPRESSED_COLLECTOR;
+			case 2 -> DOUBLE_COMPRESSED_COLLECTOR;
+			case 3 -> TRIPLE_COMPRESSED_COLLECTOR;
+			default -> COLLECTOR;
+		};
+	}
+
 	public static final Map<Matter, DeferredBlock<Block>> RELAY =
 			Util.make(new LinkedHashMap<>(), map -> {
 				for (Matter matter : Matter.VALUES) {
@@ -19,24 +19,26 @@
 
 package dev.latvian.mods.projectex.block.entity;
 
-import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.Matter;
 import dev.latvian.mods.projectex.block.CollectorBlock;
-import moze_intel.projecte.api.capabilities.PECapabilities;
+import dev.latvian.mods.projectex.generator.EmcNeighbors;
+import dev.latvian.mods.projectex.generator.Generator;
+import dev.latvian.mods.projectex.generator.GeneratorScheduler;
+import dev.latvian.mods.projectex.generator.VirtualGenerators;
 import moze_intel.projecte.api.capabilities.block_entity.IEmcStorage;
-import moze_intel.projecte.gameObjs.block_entities.RelayMK1BlockEntity;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
-import java.util.ArrayList;
-import java.util.List;
+import org.jetbrains.annotations.Nullable;
 
-public class CollectorBlockEntity extends BlockEntity implements IEmcStorage {
-	public int tick = 0;
+public class CollectorBlockEntity extends BlockEntity implements IEmcStorage, Generator {
 	public long storedEMC = 0L;
 
+	private final EmcNeighbors neighbors = new EmcNeighbors(this, this::onNeighborChanged);
+
 	public CollectorBlockEntity(BlockPos pos, BlockState state) {
 		super(ProjectEXBlockEntities.COLLECTOR.get(), pos, state);
 	}
@@ -44,80 +46,149 @@ public class CollectorBlockEntity extends BlockEntity implements IEmcStorage {
 	@Override
 	protected void loadAdditional(CompoundTag tag, HolderLookup.Provider registries) {
 		super.loadAdditional(tag, registries);
-		tick = tag.getByte("Tick") & 0xFF;
 		storedEMC = tag.getLong("StoredEMC");
 	}
 
 	@Override
 	protected void saveAdditional(CompoundTag tag, HolderLookup.Provider registries) {
 		super.saveAdditional(tag, registries);
-		tag.putByte("Tick", (byte) tick);
 		tag.putLong("StoredEMC", storedEMC);
 	}
 
-	public void tick() {
-		if (level == null || level.isClientSide()) {
-			return;
+	@Nullable
+	public Matter getMatter() {
+		return getBlockState().getBlock() instanceof CollectorBlock collector ? collector.matter : null;
+	}
+
+	/**
+	 * EMC produced per cycle, including compression
+	 */
+	public long getOutput() {
+		return getBlockState().getBlock() instanceof CollectorBlock collector ? collector.getOutput() : 0L;
+	}
+
+	/**
+	 * Add the output of the given number of cycles to the buffer
+	 */
+	private void produce(long cycles) {
+		long output = getOutput();
+
+		if (cycles > 0L && output > 0L) {
+			long produced = cycles > Long.MAX_VALUE / output ? Long.MAX_VALUE : output * cycles;
+			storedEMC = storedEMC > Long.MAX_VALUE - produced ? Long.MAX_VALUE : storedEMC + produced;
 		}
+	}
 
-		tick++;
+	@Override
+	public void onLoad() {
+		super.onLoad();
 
-		if (tick >= 20) {
-			tick = 0;
+		if (level instanceof ServerLevel serverLevel) {
+			// Catch up on what was produced while the chunk was unloaded
+			VirtualGenerators.Entry entry = VirtualGenerators.get(serverLevel.getServer()).remove(serverLevel.dimension(), worldPosition);
 
-			BlockState state = getBlockState();
+			if (entry != null && entry.kind() == VirtualGenerators.Kind.COLLECTOR) {
+				produce(VirtualGenerators.getElapsedCycles(entry, serverLevel.getGameTime()));
+				setChanged();
+			}
 
-			if (state.getBlock() instanceof CollectorBlock collector) {
-				storedEMC += collector.matter.collectorOutput;
+			GeneratorScheduler.get(serverLevel).add(this);
+		}
+	}
 
-				// Early exit if no EMC to transfer
-				if (storedEMC <= 0L) {
-					return;
-				}
+	@Override
+	public void onChunkUnloaded() {
+		super.onChunkUnloaded();
+
+		if (level instanceof ServerLevel serverLevel && getMatter() != null) {
+			// The chunk is already saved at this point, so time spent dormant is carried over in the entry
+			long dormantSince = GeneratorScheduler.get(serverLevel).getDormantSince(this);
+			long unloadedAt = dormantSince >= 0L ? dormantSince : serverLevel.getGameTime();
+			VirtualGenerators.get(serverLevel.getServer()).putCollector(serverLevel.dimension(), worldPosition, getMatter(), unloadedAt);
+		}
+	}
 
-				List<IEmcStorage> temp = new ArrayList<>(6);
+	@Override
+	public void setRemoved() {
+		super.setRemoved();
 
-				for (Direction direction : ProjectEX.DIRECTIONS) {
-					BlockPos targetPos = worldPosition.relative(direction);
-					BlockEntity blockEntity = level.getBlockEntity(targetPos);
+		if (level instanceof ServerLevel serverLevel) {
+			GeneratorScheduler.get(serverLevel).remove(this);
+		}
+	}
 
-					if (blockEntity != null) {
-						// Query capability at the target position with the direction FROM the target TO us
-						IEmcStorage storage = level.getCapability(PECapabilities.EMC_STORAGE_CAPABILITY,
-								targetPos,
-								blockEntity.getBlockState(),
-								blockEntity,
-								direction.getOpposite());
+	private void onNeighborChanged() {
+		if (level instanceof ServerLevel serverLevel) {
+			GeneratorScheduler.get(serverLevel).wake(this);
+		}
+	}
 
-						if (storage != null && storage.insertEmc(1L, IEmcStorage.EmcAction.SIMULATE) > 0L) {
-							temp.add(storage);
+	@Override
+	public boolean generate(int cycles) {
+		if (!(level instanceof ServerLevel serverLevel)) {
+			return true;
+		}
 
-							if (blockEntity instanceof RelayBlockEntity relay) {
-								relay.addBonus();
-								blockEntity.setChanged();
-							}
-						}
-					}
+		BlockState state = getBlockState();
+
+		if (state.getBlock() instanceof CollectorBlock) {
+			produce(cycles);
+
+			// Early exit if no EMC to transfer
+			if (storedEMC <= 0L) {
+				return true;
+			}
+
+			int count = neighbors.findAccepting(serverLevel, false);
+
+			if (count == 0) {
+				return false;
+			}
+
+			for (int i = 0; i < count; i++) {
+				if (neighbors.get(i) instanceof RelayBlockEntity relay) {
+					relay.addBonus();
+					relay.setChanged();
 				}
+			}
 
-				if (!temp.isEmpty() && storedEMC >= temp.size()) {
-					long s = storedEMC / temp.size();
+			if (storedEMC >= count) {
+				long s = storedEMC / count;
+				boolean moved = false;
 
-					for (IEmcStorage storage : temp) {
-						long a = storage.insertEmc(s, EmcAction.EXECUTE);
+				for (int i = 0; i < count; i++) {
+					long a = neighbors.get(i).insertEmc(s, EmcAction.EXECUTE);
 
-						if (a > 0L) {
-							storedEMC -= a;
-							setChanged();
+					if (a > 0L) {
+						storedEMC -= a;
+						moved = true;
+						setChanged();
 
-							if (storedEMC < s) {
-								break;
-							}
+						if (storedEMC < s) {
+							break;
 						}
 					}
 				}
+
+				return moved;
 			}
 		}
+
+		return true;
+	}
+
+	@Override
+	public boolean canWake() {
+		return level instanceof ServerLevel serverLevel && neighbors.findAccepting(serverLevel, false) > 0;
+	}
+
+	@Override
+	public void wake(int cycles) {
+		// Output keeps accumulating while dormant
+		if (cycles > 0) {
+			produce(cycles);
+			setChanged();
+		}
 	}
 
 	@Override
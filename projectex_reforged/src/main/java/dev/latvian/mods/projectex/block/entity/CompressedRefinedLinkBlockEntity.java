@@ -19,11 +19,52 @@
 
 package dev.latvian.mods.projectex.block.entity;
 
+import dev.latvian.mods.projectex.ProjectEXConfig;
+import dev.latvian.mods.projectex.generator.GeneratorScheduler;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.block.state.BlockState;
 
+/**
+ * Compressed Refined Link.
+ *
+ * Hands out items like the regular link, a whole autocrafting request paid in
+ * one transaction. Servers can also limit what each one spends per second
+ * with compressedRefinedLinkEmcPerSecond, which is unlimited by default.
+ */
 public class CompressedRefinedLinkBlockEntity extends LinkBaseBlockEntity {
+	// Second (game time / 20) the spent amount belongs to
+	private long second = Long.MIN_VALUE;
+	private long spent = 0L;
+
 	public CompressedRefinedLinkBlockEntity(BlockPos pos, BlockState state) {
 		super(ProjectEXBlockEntities.COMPRESSED_REFINED_LINK.get(), pos, state);
 	}
+
+	private long getRemainingBudget() {
+		long cap = ProjectEXConfig.COMPRESSED_REFINED_LINK_EMC_PER_SECOND.get();
+
+		if (cap <= 0L || level == null) {
+			return Long.MAX_VALUE;
+		}
+
+		long now = level.getGameTime() / GeneratorScheduler.CYCLE_TICKS;
+
+		if (now != second) {
+			second = now;
+			spent = 0L;
+		}
+
+		return Math.max(cap - spent, 0L);
+	}
+
+	@Override
+	public long getExtractLimit(long requested, long emc) {
+		return Math.min(requested, getRemainingBudget() / emc);
+	}
+
+	@Override
+	public void onExtracted(long emc) {
+		getRemainingBudget();
+		spent = spent > Long.MAX_VALUE - emc ? Long.MAX_VALUE : spent + emc;
+	}
 }
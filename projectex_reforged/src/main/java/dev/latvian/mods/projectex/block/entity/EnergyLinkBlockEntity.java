@@ -17,141 +17,87 @@
  * https://www.gnu.org/licenses/lgpl-3.0.html
  */
 
+
 package dev.latvian.mods.projectex.block.entity;
 
+import dev.latvian.mods.projectex.Matter;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.block.state.BlockState;
 import net.neoforged.neoforge.energy.IEnergyStorage;
 import org.jetbrains.annotations.Nullable;
 
-import java.math.BigInteger;
-
 /**
  * Energy Link block entity that provides bidirectional EMC↔FE conversion.
  *
- * Conversion rate: 1 EMC = 10 FE (configurable)
- *
  * Features:
  * - Receives FE from adjacent energy producers → converts to EMC
- * - Provides FE to adjacent energy consumers ← converts from EMC
- * - Accumulated EMC transfers to player knowledge every 20 ticks (like other Link blocks)
+ * - Provides FE to adjacent energy consumers ← paid from the owner's EMC through a prefetch window
+ * - Received EMC goes to the owner's ledger account, flushed to their knowledge every 20 ticks (like other Link blocks)
+ * - Throughput depends on the Matter tier, see {@link EnergyLinkEngine}
+ * - Optionally pushes FE to neighbors on chosen faces (sneak + right-click a face)
  *
  * This allows integration with FE-based power systems in both directions.
  */
 public class EnergyLinkBlockEntity extends LinkBaseBlockEntity {
-	// EMC to FE conversion rate (1 EMC = 10 FE)
-	public static final int EMC_TO_FE_RATIO = 10;
+	// 1 EMC = 10 FE, the same on every tier
+	public static final int EMC_TO_FE_RATIO = EnergyLinkEngine.EMC_TO_FE_RATIO;
 
-	// Maximum FE that can be extracted per tick
-	public static final int MAX_FE_EXTRACT_PER_TICK = 10000;
-
-	// Maximum FE that can be received per tick
-	public static final int MAX_FE_RECEIVE_PER_TICK = 10000;
+	private final EnergyLinkEngine energy = new EnergyLinkEngine(this);
 
 	public EnergyLinkBlockEntity(BlockPos pos, BlockState state) {
 		super(ProjectEXBlockEntities.ENERGY_LINK.get(), pos, state);
 	}
 
-	/**
-	 * Get the IEnergyStorage capability for the specified side.
-	 * This allows adjacent blocks to extract FE from the Energy Link.
-	 *
-	 * @param side The side from which energy is being accessed (null for internal access)
-	 * @return IEnergyStorage implementation for this block entity
-	 */
-	public IEnergyStorage getEnergyStorage(@Nullable Direction side) {
-		return new IEnergyStorage() {
-			@Override
-			public int receiveEnergy(int maxReceive, boolean simulate) {
-				// Convert received FE to EMC and add to storage
-				// This allows FE producers to feed energy into the Energy Link
-
-				if (maxReceive <= 0) {
-					return 0;
-				}
-
-				// Limit reception to configured maximum per tick
-				int actualMaxReceive = Math.min(maxReceive, MAX_FE_RECEIVE_PER_TICK);
-
-				// Calculate how much EMC this FE represents
-				long emcToAdd = actualMaxReceive / EMC_TO_FE_RATIO; // Round down
-
-				if (emcToAdd <= 0) {
-					return 0; // Not enough FE to make even 1 EMC
-				}
-
-				// Calculate actual FE consumed (might be less than maxReceive due to rounding)
-				int feConsumed = (int) (emcToAdd * EMC_TO_FE_RATIO);
-
-				if (!simulate && feConsumed > 0) {
-					// Actually add the EMC to storage
-					storedEMC = storedEMC.add(BigInteger.valueOf(emcToAdd));
-					setChanged();
-				}
-
-				return feConsumed;
-			}
-
-			@Override
-			public int extractEnergy(int maxExtract, boolean simulate) {
-				if (storedEMC.equals(BigInteger.ZERO)) {
-					return 0;
-				}
-
-				// Limit extraction to configured maximum per tick
-				int actualMaxExtract = Math.min(maxExtract, MAX_FE_EXTRACT_PER_TICK);
-
-				// Calculate how much EMC this represents
-				long emcNeeded = (actualMaxExtract + EMC_TO_FE_RATIO - 1) / EMC_TO_FE_RATIO; // Round up
-
-				// Check how much EMC we actually have available
-				BigInteger availableEmc = storedEMC;
-				long emcToUse = Math.min(emcNeeded, availableEmc.min(BigInteger.valueOf(Long.MAX_VALUE)).longValue());
-
-				if (emcToUse <= 0) {
-					return 0;
-				}
+	public static long getMaxTransfer(Matter matter) {
+		return EnergyLinkEngine.getMaxTransfer(matter);
+	}
 
-				// Calculate actual FE to provide
-				int feToProvide = (int) (emcToUse * EMC_TO_FE_RATIO);
-				feToProvide = Math.min(feToProvide, actualMaxExtract);
+	@Override
+	protected void loadAdditional(CompoundTag tag, HolderLookup.Provider registries) {
+		super.loadAdditional(tag, registries);
+		energy.load(tag);
+	}
 
-				if (!simulate && feToProvide > 0) {
-					// Actually consume the EMC
-					long emcConsumed = (feToProvide + EMC_TO_FE_RATIO - 1) / EMC_TO_FE_RATIO; // Round up
-					storedEMC = storedEMC.subtract(BigInteger.valueOf(emcConsumed));
-					setChanged();
-				}
+	@Override
+	protected void saveAdditional(CompoundTag tag, HolderLookup.Provider registries) {
+		super.saveAdditional(tag, registries);
+		energy.save(tag);
+	}
 
-				return feToProvide;
-			}
+	@Override
+	public void onChunkUnloaded() {
+		super.onChunkUnloaded();
+		energy.release();
+	}
 
-			@Override
-			public int getEnergyStored() {
-				// Return current FE equivalent (capped at Integer.MAX_VALUE)
-				BigInteger feEquivalent = storedEMC.multiply(BigInteger.valueOf(EMC_TO_FE_RATIO));
-				if (feEquivalent.compareTo(BigInteger.valueOf(Integer.MAX_VALUE)) > 0) {
-					return Integer.MAX_VALUE;
-				}
-				return feEquivalent.intValue();
-			}
+	@Override
+	public void setRemoved() {
+		super.setRemoved();
+		energy.release();
+	}
 
-			@Override
-			public int getMaxEnergyStored() {
-				// Effectively unlimited, but report a reasonable cap for UI purposes
-				return Integer.MAX_VALUE;
-			}
+	public EnergyLinkEngine getEngine() {
+		return energy;
+	}
 
-			@Override
-			public boolean canExtract() {
-				return true; // Can extract FE (convert EMC→FE)
-			}
+	public void tick() {
+		if (level instanceof ServerLevel serverLevel) {
+			energy.tick(serverLevel);
+		}
+	}
 
-			@Override
-			public boolean canReceive() {
-				return true; // Can receive FE (convert FE→EMC)
-			}
-		};
+	/**
+	 * Get the IEnergyStorage capability for the specified side.
+	 * The same handler is returned for every side and every query.
+	 *
+	 * @param side The side from which energy is being accessed (null for internal access)
+	 * @return IEnergyStorage implementation for this block entity
+	 */
+	public IEnergyStorage getEnergyStorage(@Nullable Direction side) {
+		return energy;
 	}
 }
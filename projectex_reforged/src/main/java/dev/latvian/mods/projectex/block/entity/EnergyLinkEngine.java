@@ -0,0 +1,418 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.block.entity;
+
+import dev.latvian.mods.projectex.Matter;
+import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.ProjectEXConfig;
+import dev.latvian.mods.projectex.block.EnergyLinkBlock;
+import dev.latvian.mods.projectex.emc.EmcLedger;
+import dev.latvian.mods.projectex.emc.KnowledgeView;
+import dev.latvian.mods.projectex.emc.OwnerCache;
+import dev.latvian.mods.projectex.generator.GeneratorScheduler;
+import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.neoforged.neoforge.capabilities.BlockCapabilityCache;
+import net.neoforged.neoforge.capabilities.Capabilities;
+import net.neoforged.neoforge.energy.IEnergyStorage;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * FE side of an Energy Link, one instance per block entity.
+ *
+ * FE received is converted to EMC and deposited into the owner's
+ * {@link EmcLedger} account. FE extracted is paid from a prefetch window: the
+ * link reserves EMC from the owner's balance (unflushed ledger EMC first,
+ * then their knowledge) and serves FE from that plain long until it runs low,
+ * so the knowledge is only touched once per refill. A refill reserves a couple
+ * of seconds of the link's recent demand, never more than a second of full
+ * throughput. Reserved EMC stays counted in the ledger. Every second the window
+ * is trimmed back to the recent demand, so an idle link hands its reservation
+ * back within two seconds, and whatever is left goes back when the link
+ * unloads or is removed.
+ *
+ * EMC is spent whole, so FE left over from a partly used EMC is kept for the
+ * next call instead of being thrown away. Simulated extraction reserves
+ * nothing, it only looks at what could be paid.
+ *
+ * Throughput per call scales with the block's {@link Matter} tier, the same
+ * ×4 steps as relay transfer, starting at 10,000 FE for Basic. The conversion
+ * rate doesn't: with different rates, FE fed into one tier and taken out of
+ * another would create energy.
+ *
+ * Faces can also be switched to push mode, where the link hands FE to the
+ * neighbor on that face every tick instead of waiting to be pulled. Pushing
+ * splits one tick's throughput evenly between the neighbors that accept FE,
+ * starting at a different face each tick so the remainder rotates. A
+ * neighbor that refuses energy is skipped until it changes, or until the
+ * next dormant probe gives it another chance.
+ */
+public class EnergyLinkEngine implements IEnergyStorage {
+	// 1 EMC = 10 FE, on every tier
+	public static final int EMC_TO_FE_RATIO = 10;
+
+	// FE per call for Basic
+	public static final long BASE_MAX_TRANSFER = 10_000L;
+
+	// Largest window, in ticks of full throughput
+	private static final long WINDOW_TICKS = 20L;
+
+	// Window size, in seconds of recent demand
+	private static final long WINDOW_DEMAND_SECONDS = 2L;
+
+	private final LinkBaseBlockEntity link;
+
+	// Faces that push FE, one bit per Direction ordinal
+	private int pushFaces = 0;
+
+	// Faces whose neighbor refused FE, cleared when that neighbor changes
+	private int refusedFaces = 0;
+
+	// EMC reserved from the owner's balance, spent on FE without touching the ledger or knowledge
+	private long window = 0L;
+
+	// FE already paid for but not handed out yet, less than one EMC's worth
+	private long feBuffer = 0L;
+
+	// EMC drawn during the current and the previous second, to size the window
+	private long demand = 0L;
+	private long lastDemand = 0L;
+	private int demandTick = 0;
+
+	private int nextFace = 0;
+	private int probeTick = 0;
+
+	@Nullable
+	private BlockCapabilityCache<IEnergyStorage, @Nullable Direction>[] caches;
+
+	private final IEnergyStorage[] targets = new IEnergyStorage[6];
+	private final int[] targetFaces = new int[6];
+
+	public EnergyLinkEngine(LinkBaseBlockEntity link) {
+		this.link = link;
+	}
+
+	public boolean isPushing(Direction face) {
+		return (pushFaces & (1 << face.ordinal())) != 0;
+	}
+
+	/**
+	 * Switch push mode for a face
+	 *
+	 * @return true if the face pushes now
+	 */
+	public boolean togglePush(Direction face) {
+		pushFaces ^= 1 << face.ordinal();
+		refusedFaces &= ~(1 << face.ordinal());
+		link.setChanged();
+		return isPushing(face);
+	}
+
+	public void load(CompoundTag tag) {
+		pushFaces = tag.getByte("PushFaces") & 0x3F;
+	}
+
+	public void save(CompoundTag tag) {
+		if (pushFaces != 0) {
+			tag.putByte("PushFaces", (byte) pushFaces);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private BlockCapabilityCache<IEnergyStorage, @Nullable Direction>[] getCaches(ServerLevel level) {
+		if (caches == null) {
+			caches = new BlockCapabilityCache[ProjectEX.DIRECTIONS.length];
+
+			for (Direction direction : ProjectEX.DIRECTIONS) {
+				int bit = 1 << direction.ordinal();
+
+				// Query the neighbor with the direction FROM the neighbor TO us
+				caches[direction.ordinal()] = BlockCapabilityCache.create(Capabilities.EnergyStorage.BLOCK,
+						level,
+						link.getBlockPos().relative(direction),
+						direction.getOpposite(),
+						() -> !link.isRemoved(),
+						() -> refusedFaces &= ~bit);
+			}
+		}
+
+		return caches;
+	}
+
+	/**
+	 * Trim the window and push FE to the neighbors on push faces, called every server tick
+	 */
+	public void tick(ServerLevel level) {
+		if (++demandTick >= GeneratorScheduler.CYCLE_TICKS) {
+			demandTick = 0;
+			lastDemand = demand;
+			demand = 0L;
+			trim();
+		}
+
+		if (pushFaces == 0 || !link.hasOwner()) {
+			return;
+		}
+
+		// Give refusing neighbors another chance now and then, they may have drained since
+		int probeCycles = ProjectEXConfig.DORMANT_PROBE_CYCLES.get();
+
+		if (refusedFaces != 0 && probeCycles > 0 && ++probeTick >= probeCycles * GeneratorScheduler.CYCLE_TICKS) {
+			probeTick = 0;
+			refusedFaces = 0;
+		}
+
+		int active = pushFaces & ~refusedFaces;
+
+		if (active == 0 || feBuffer <= 0L && getAvailable() <= 0L) {
+			return;
+		}
+
+		BlockCapabilityCache<IEnergyStorage, @Nullable Direction>[] c = getCaches(level);
+		int count = 0;
+
+		// Round-robin: start at a different face every tick
+		for (int i = 0; i < 6; i++) {
+			int face = (nextFace + i) % 6;
+
+			if ((active & (1 << face)) != 0) {
+				IEnergyStorage target = c[face].getCapability();
+
+				if (target != null && target.canReceive()) {
+					targets[count] = target;
+					targetFaces[count] = face;
+					count++;
+				} else {
+					refusedFaces |= 1 << face;
+				}
+			}
+		}
+
+		nextFace = (nextFace + 1) % 6;
+
+		if (count > 0) {
+			int budget = getMaxTransfer(getMatter());
+			int share = budget / count;
+			int remainder = budget % count;
+
+			for (int i = 0; i < count; i++) {
+				IEnergyStorage target = targets[i];
+				targets[i] = null;
+				int offer = share + (i < remainder ? 1 : 0);
+				int accepted = offer <= 0 ? 0 : target.receiveEnergy(offer, true);
+
+				if (accepted <= 0) {
+					refusedFaces |= 1 << targetFaces[i];
+					continue;
+				}
+
+				int fe = extractEnergy(accepted, false);
+
+				if (fe > 0) {
+					int received = target.receiveEnergy(fe, false);
+
+					// The target took less than it said it would, keep the rest
+					if (received < fe) {
+						refund(fe - Math.max(received, 0));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Most FE moved per receive or extract call
+	 */
+	public static int getMaxTransfer(Matter matter) {
+		long transfer = BASE_MAX_TRANSFER * (matter.relayTransfer / Matter.BASIC.relayTransfer);
+		return transfer <= 0L || transfer > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) transfer;
+	}
+
+	private Matter getMatter() {
+		return link.getBlockState().getBlock() instanceof EnergyLinkBlock block ? block.matter : Matter.BASIC;
+	}
+
+	@Override
+	public int receiveEnergy(int maxReceive, boolean simulate) {
+		if (maxReceive <= 0 || !link.hasOwner()) {
+			return 0;
+		}
+
+		Matter matter = getMatter();
+		// Whole EMC only, the remainder is left to the sender
+		long emc = Math.min(maxReceive, getMaxTransfer(matter)) / EMC_TO_FE_RATIO;
+
+		if (emc <= 0L) {
+			return 0;
+		}
+
+		if (!simulate) {
+			EmcLedger.deposit(link.owner, emc);
+		}
+
+		return (int) (emc * EMC_TO_FE_RATIO);
+	}
+
+	@Override
+	public int extractEnergy(int maxExtract, boolean simulate) {
+		if (maxExtract <= 0 || !link.hasOwner()) {
+			return 0;
+		}
+
+		Matter matter = getMatter();
+		long fe = Math.min(maxExtract, getMaxTransfer(matter));
+
+		if (simulate) {
+			// Reserve nothing, only see what could be paid
+			return (int) Math.min(fe, toFe(getAvailable()));
+		}
+
+		long extracted = Math.min(fe, feBuffer);
+		feBuffer -= extracted;
+		long missing = fe - extracted;
+
+		if (missing > 0L) {
+			// Round up, the FE left over from the last EMC is kept for next time
+			long needed = (missing + EMC_TO_FE_RATIO - 1L) / EMC_TO_FE_RATIO;
+
+			if (window < needed) {
+				refill(needed - window, matter);
+			}
+
+			long emc = Math.min(needed, window);
+
+			if (emc > 0L) {
+				window -= emc;
+				EmcLedger.consumeReserved(link.owner, emc);
+				demand = saturatedAdd(demand, emc);
+
+				long paid = emc * EMC_TO_FE_RATIO;
+				long given = Math.min(paid, missing);
+				feBuffer += paid - given;
+				extracted += given;
+			}
+		}
+
+		return (int) extracted;
+	}
+
+	/**
+	 * Take back FE that was extracted but not delivered. Whole EMC goes back into the window.
+	 */
+	private void refund(long fe) {
+		feBuffer += fe;
+		long emc = feBuffer / EMC_TO_FE_RATIO;
+
+		if (emc > 0L) {
+			feBuffer -= emc * EMC_TO_FE_RATIO;
+			window += emc;
+			EmcLedger.restoreReserved(link.owner, emc);
+			demand = Math.max(0L, demand - emc);
+		}
+	}
+
+	/**
+	 * Reserve at least the missing EMC, and up to a couple of seconds of recent demand
+	 */
+	private void refill(long missing, Matter matter) {
+		long max = getMaxTransfer(matter) / EMC_TO_FE_RATIO * WINDOW_TICKS;
+		long size = Math.max(Math.min(saturatedMultiply(lastDemand, WINDOW_DEMAND_SECONDS), max), missing);
+		window += EmcLedger.reserve(link.owner, size);
+	}
+
+	/**
+	 * Hand back whatever the recent demand doesn't need, all of it once the link is idle
+	 */
+	private void trim() {
+		long keep = saturatedMultiply(lastDemand, WINDOW_DEMAND_SECONDS);
+
+		if (window > keep) {
+			EmcLedger.release(link.owner, window - keep);
+			window = keep;
+		}
+	}
+
+	/**
+	 * Hand the unspent part of the window back to the owner, called when the link unloads or is removed
+	 */
+	public void release() {
+		if (window > 0L) {
+			EmcLedger.release(link.owner, window);
+			window = 0L;
+		}
+	}
+
+	private long getAvailable() {
+		long available = window;
+		available = saturatedAdd(available, EmcLedger.getPending(link.owner));
+		IKnowledgeProvider knowledge = OwnerCache.getKnowledge(link.owner);
+
+		if (knowledge != null) {
+			available = saturatedAdd(available, KnowledgeView.getBalance(knowledge));
+		}
+
+		return available;
+	}
+
+	/**
+	 * FE that EMC plus the leftover FE is worth, saturating
+	 */
+	private long toFe(long emc) {
+		return emc > (Long.MAX_VALUE - feBuffer) / EMC_TO_FE_RATIO ? Long.MAX_VALUE : emc * EMC_TO_FE_RATIO + feBuffer;
+	}
+
+	private static long saturatedAdd(long a, long b) {
+		return a > Long.MAX_VALUE - b ? Long.MAX_VALUE : a + b;
+	}
+
+	private static long saturatedMultiply(long a, long b) {
+		long hi = Math.multiplyHigh(a, b);
+		long lo = a * b;
+		return (hi == 0L && lo >= 0L) ? lo : Long.MAX_VALUE;
+	}
+
+	@Override
+	public int getEnergyStored() {
+		if (!link.hasOwner()) {
+			return 0;
+		}
+
+		return (int) Math.min(toFe(getAvailable()), Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int getMaxEnergyStored() {
+		// Effectively unlimited, but report a reasonable cap for UI purposes
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public boolean canExtract() {
+		return true;
+	}
+
+	@Override
+	public boolean canReceive() {
+		return true;
+	}
+}
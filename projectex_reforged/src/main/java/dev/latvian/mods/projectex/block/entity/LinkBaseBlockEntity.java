@@ -19,26 +19,32 @@
 
 package dev.latvian.mods.projectex.block.entity;
 
-import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
-import moze_intel.projecte.api.capabilities.PECapabilities;
+import dev.latvian.mods.projectex.EmcAccumulator;
+import dev.latvian.mods.projectex.emc.EmcLedger;
 import moze_intel.projecte.api.capabilities.block_entity.IEmcStorage;
 import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 
-import java.math.BigInteger;
 import java.util.UUID;
 
+/**
+ * Base of every Link block.
+ *
+ * Links keep no balance of their own. Inserted EMC goes straight into the
+ * owner's {@link EmcLedger} account, which is flushed to their knowledge once
+ * per cycle, so links don't need to tick.
+ */
 public abstract class LinkBaseBlockEntity extends BlockEntity implements IEmcStorage {
 	public UUID owner = Util.NIL_UUID;
 	public String ownerName = "";
-	public int tick = 0;
-	public BigInteger storedEMC = BigInteger.ZERO;
+
+	// Balance saved by older versions, moved into the ledger on load
+	private final EmcAccumulator legacyEMC = new EmcAccumulator();
 
 	public LinkBaseBlockEntity(BlockEntityType<?> type, BlockPos pos, BlockState state) {
 		super(type, pos, state);
@@ -49,9 +55,10 @@ public abstract class LinkBaseBlockEntity extends BlockEntity implements IEmcSto
 		super.loadAdditional(tag, registries);
 		owner = tag.getUUID("Owner");
 		ownerName = tag.getString("OwnerName");
-		tick = tag.getByte("Tick") & 0xFF;
-		String s = tag.getString("StoredEMC");
-		storedEMC = s.equals("0") ? BigInteger.ZERO : new BigInteger(s);
+
+		if (tag.contains("StoredEMC")) {
+			legacyEMC.set(EmcAccumulator.parse(tag.getString("StoredEMC")));
+		}
 	}
 
 	@Override
@@ -59,33 +66,41 @@ public abstract class LinkBaseBlockEntity extends BlockEntity implements IEmcSto
 		super.saveAdditional(tag, registries);
 		tag.putUUID("Owner", owner);
 		tag.putString("OwnerName", ownerName);
-		tag.putByte("Tick", (byte) tick);
-		tag.putString("StoredEMC", storedEMC.toString());
 	}
 
-	public void tick() {
-		if (level == null || level.isClientSide()) {
-			return;
-		}
+	@Override
+	public void onLoad() {
+		super.onLoad();
 
-		tick++;
+		if (level != null && !level.isClientSide() && !legacyEMC.isZero()) {
+			if (hasOwner()) {
+				EmcLedger.deposit(owner, legacyEMC);
+			}
 
-		if (tick >= 20) {
-			tick = 0;
+			legacyEMC.clear();
+			setChanged();
+		}
+	}
 
-			ServerPlayer player = level.getServer().getPlayerList().getPlayer(owner);
+	public boolean hasOwner() {
+		return !owner.equals(Util.NIL_UUID);
+	}
 
-			if (player != null && !storedEMC.equals(BigInteger.ZERO)) {
-				IKnowledgeProvider provider = player.getCapability(PECapabilities.KNOWLEDGE_CAPABILITY);
+	/**
+	 * Most items a storage network may extract through this link in one call,
+	 * before the owner's balance is considered. Unlimited by default.
+	 *
+	 * @param requested Items asked for
+	 * @param emc       EMC value of one item
+	 */
+	public long getExtractLimit(long requested, long emc) {
+		return requested;
+	}
 
-				if (provider != null) {
-					provider.setEmc(provider.getEmc().add(storedEMC));
-					storedEMC = BigInteger.ZERO;
-					setChanged();
-					provider.syncEmc(player);
-				}
-			}
-		}
+	/**
+	 * Called after an extraction through this link was paid for
+	 */
+	public void onExtracted(long emc) {
 	}
 
 	@Override
@@ -105,9 +120,9 @@ public abstract class LinkBaseBlockEntity extends BlockEntity implements IEmcSto
 
 	@Override
 	public long insertEmc(long emc, EmcAction action) {
-		if (emc > 0L) {
+		if (emc > 0L && hasOwner()) {
 			if (action.execute()) {
-				storedEMC = storedEMC.add(BigInteger.valueOf(emc));
+				EmcLedger.deposit(owner, emc);
 			}
 			return emc;
 		}
@@ -19,25 +19,36 @@
 
 package dev.latvian.mods.projectex.block.entity;
 
+import dev.latvian.mods.projectex.EmcAccumulator;
+import dev.latvian.mods.projectex.Matter;
 import dev.latvian.mods.projectex.block.PowerFlowerBlock;
-import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
-import moze_intel.projecte.api.capabilities.PECapabilities;
+import dev.latvian.mods.projectex.emc.EmcLedger;
+import dev.latvian.mods.projectex.generator.PowerFlowerTracker;
 import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
 
-import java.math.BigInteger;
 import java.util.UUID;
 
+/**
+ * Power Flower block entity.
+ *
+ * Flowers don't tick. While loaded on the server they are registered with the
+ * {@link PowerFlowerTracker}, which works out the combined output of all of an
+ * owner's flowers from elapsed time. Output goes into the owner's
+ * {@link EmcLedger} account, so flowers hold no EMC of their own.
+ */
 public class PowerFlowerBlockEntity extends BlockEntity {
 	public UUID owner = Util.NIL_UUID;
 	public String ownerName = "";
-	public int tick = 0;
-	public BigInteger storedEMC = BigInteger.ZERO;
+
+	// Offline output saved by older versions, moved into the ledger on load
+	private final EmcAccumulator legacyEMC = new EmcAccumulator();
 
 	public PowerFlowerBlockEntity(BlockPos pos, BlockState state) {
 		super(ProjectEXBlockEntities.POWER_FLOWER.get(), pos, state);
@@ -48,9 +59,10 @@ public class PowerFlowerBlockEntity extends BlockEntity {
 		super.loadAdditional(tag, registries);
 		owner = tag.getUUID("Owner");
 		ownerName = tag.getString("OwnerName");
-		tick = tag.getByte("Tick") & 0xFF;
-		String s = tag.getString("StoredEMC");
-		storedEMC = s.equals("0") ? BigInteger.ZERO : new BigInteger(s);
+
+		if (tag.contains("StoredEMC")) {
+			legacyEMC.set(EmcAccumulator.parse(tag.getString("StoredEMC")));
+		}
 	}
 
 	@Override
@@ -58,47 +70,71 @@ public class PowerFlowerBlockEntity extends BlockEntity {
 		super.saveAdditional(tag, registries);
 		tag.putUUID("Owner", owner);
 		tag.putString("OwnerName", ownerName);
-		tag.putByte("Tick", (byte) tick);
-		tag.putString("StoredEMC", storedEMC.toString());
 	}
 
-	public void tick() {
-		if (level == null || level.isClientSide()) {
-			return;
+	@Nullable
+	public Matter getMatter() {
+		return getBlockState().getBlock() instanceof PowerFlowerBlock powerFlower ? powerFlower.matter : null;
+	}
+
+	/**
+	 * Set the owner when the flower is placed. The flower is already registered
+	 * by then (onLoad runs first), so it has to move to the new owner's entry.
+	 */
+	public void setOwner(LivingEntity entity) {
+		boolean tracked = isTracked();
+
+		if (tracked) {
+			PowerFlowerTracker.remove(this, getMatter());
+		}
+
+		owner = entity.getUUID();
+		ownerName = entity.getScoreboardName();
+		setChanged();
+
+		if (tracked) {
+			PowerFlowerTracker.add(this, getMatter());
 		}
+	}
 
-		tick++;
+	private boolean isTracked() {
+		return level != null && !level.isClientSide() && getMatter() != null;
+	}
+
+	@Override
+	public void onLoad() {
+		super.onLoad();
 
-		if (tick >= 20) {
-			tick = 0;
+		if (level != null && !level.isClientSide() && !legacyEMC.isZero()) {
+			if (!owner.equals(Util.NIL_UUID)) {
+				EmcLedger.deposit(owner, legacyEMC);
+			}
 
-			BlockState state = getBlockState();
+			legacyEMC.clear();
+			setChanged();
+		}
 
-			if (state.getBlock() instanceof PowerFlowerBlock powerFlower) {
-				long gen = powerFlower.matter.getPowerFlowerOutput();
+		if (isTracked()) {
+			PowerFlowerTracker.add(this, getMatter());
+		}
+	}
 
-				ServerPlayer player = level.getServer().getPlayerList().getPlayer(owner);
+	@Override
+	public void onChunkUnloaded() {
+		super.onChunkUnloaded();
 
-				if (player != null) {
-					IKnowledgeProvider provider = player.getCapability(PECapabilities.KNOWLEDGE_CAPABILITY);
+		// Keeps producing while unloaded. setRemoved() follows, but the flower is no longer a member by then
+		if (isTracked()) {
+			PowerFlowerTracker.unload(this, getMatter());
+		}
+	}
 
-					if (provider != null) {
-						provider.setEmc(provider.getEmc().add(BigInteger.valueOf(gen)));
+	@Override
+	public void setRemoved() {
+		super.setRemoved();
 
-						if (!storedEMC.equals(BigInteger.ZERO)) {
-							provider.setEmc(provider.getEmc().add(storedEMC));
-							storedEMC = BigInteger.ZERO;
-							setChanged();
-						}
-					} else {
-						storedEMC = storedEMC.add(BigInteger.valueOf(gen));
-						setChanged();
-					}
-				} else {
-					storedEMC = storedEMC.add(BigInteger.valueOf(gen));
-					setChanged();
-				}
-			}
+		if (isTracked()) {
+			PowerFlowerTracker.remove(this, getMatter());
 		}
 	}
 }
@@ -1,6 +1,7 @@
 package dev.latvian.mods.projectex.block.entity;
 
 import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.block.CompressedCollectorBlock;
 import dev.latvian.mods.projectex.block.ProjectEXBlocks;
 import dev.latvian.mods.projectex.integration.IntegrationHelper;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -9,6 +10,8 @@ import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.neoforged.neoforge.registries.DeferredHolder;
 import net.neoforged.neoforge.registries.DeferredRegister;
 
+import java.util.stream.IntStream;
+
 public class ProjectEXBlockEntities {
 	public static final DeferredRegister<BlockEntityType<?>> REGISTRY =
 			DeferredRegister.create(BuiltInRegistries.BLOCK_ENTITY_TYPE, ProjectEX.MOD_ID);
@@ -49,7 +52,9 @@ public class ProjectEXBlockEntities {
 	public static final DeferredHolder<BlockEntityType<?>, BlockEntityType<CollectorBlockEntity>> COLLECTOR =
 			REGISTRY.register("collector", () ->
 					BlockEntityType.Builder.of(CollectorBlockEntity::new,
-							ProjectEXBlocks.COLLECTOR.values().stream()
+							IntStream.rangeClosed(0, CompressedCollectorBlock.MAX_COMPRESSION)
+									.mapToObj(ProjectEXBlocks::getCollectors)
+									.flatMap(map -> map.values().stream())
 									.map(DeferredHolder::get)
 									.toArray(Block[]::new)).build(null));
 
@@ -19,24 +19,34 @@
 
 package dev.latvian.mods.projectex.block.entity;
 
-import dev.latvian.mods.projectex.ProjectEX;
 import dev.latvian.mods.projectex.block.RelayBlock;
-import moze_intel.projecte.api.capabilities.PECapabilities;
+import dev.latvian.mods.projectex.generator.EmcNeighbors;
+import dev.latvian.mods.projectex.generator.GeneratorScheduler;
+import dev.latvian.mods.projectex.generator.RelayNetwork;
 import moze_intel.projecte.api.capabilities.block_entity.IEmcStorage;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Direction;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * Relay block entity.
+ *
+ * Relays don't run on their own. Connected relays are grouped into a
+ * {@link RelayNetwork}, which is scheduled as one unit and moves the pooled
+ * EMC of all members to the sinks around them.
+ */
 public class RelayBlockEntity extends BlockEntity implements IEmcStorage {
-	public int tick = 0;
 	public long storedEMC = 0L;
 
+	private final EmcNeighbors neighbors = new EmcNeighbors(this, this::wakeNetwork);
+
+	@Nullable
+	private RelayNetwork network;
+
 	public RelayBlockEntity(BlockPos pos, BlockState state) {
 		super(ProjectEXBlockEntities.RELAY.get(), pos, state);
 	}
@@ -44,70 +54,50 @@ public class RelayBlockEntity extends BlockEntity implements IEmcStorage {
 	@Override
 	protected void loadAdditional(CompoundTag tag, HolderLookup.Provider registries) {
 		super.loadAdditional(tag, registries);
-		tick = tag.getByte("Tick") & 0xFF;
 		storedEMC = tag.getLong("StoredEMC");
 	}
 
 	@Override
 	protected void saveAdditional(CompoundTag tag, HolderLookup.Provider registries) {
 		super.saveAdditional(tag, registries);
-		tag.putByte("Tick", (byte) tick);
 		tag.putLong("StoredEMC", storedEMC);
 	}
 
-	public void tick() {
-		if (storedEMC <= 0L || level == null || level.isClientSide()) {
-			return;
-		}
-
-		tick++;
-
-		if (tick >= 20) {
-			tick = 0;
-
-			BlockState state = getBlockState();
-
-			if (state.getBlock() instanceof RelayBlock relay) {
-				long relayTransfer = relay.matter.relayTransfer;
-
-				List<IEmcStorage> temp = new ArrayList<>(6);
+	@Override
+	public void onLoad() {
+		super.onLoad();
 
-				for (Direction direction : ProjectEX.DIRECTIONS) {
-					BlockPos targetPos = worldPosition.relative(direction);
-					BlockEntity tileEntity = level.getBlockEntity(targetPos);
+		if (level instanceof ServerLevel serverLevel) {
+			GeneratorScheduler.get(serverLevel).getRelayNetworks().relayAdded(this);
+		}
+	}
 
-					if (tileEntity != null) {
-						// Query capability at the target position with the direction FROM the target TO us
-						IEmcStorage storage = level.getCapability(PECapabilities.EMC_STORAGE_CAPABILITY,
-								targetPos,
-								tileEntity.getBlockState(),
-								tileEntity,
-								direction.getOpposite());
+	@Override
+	public void setRemoved() {
+		super.setRemoved();
 
-						if (storage != null && !storage.isRelay() && storage.insertEmc(1L, EmcAction.SIMULATE) > 0L) {
-							temp.add(storage);
-						}
-					}
-				}
+		if (level instanceof ServerLevel serverLevel) {
+			GeneratorScheduler.get(serverLevel).getRelayNetworks().relayRemoved(this);
+		}
+	}
 
-				if (!temp.isEmpty() && storedEMC >= temp.size()) {
-					long s = Math.min(storedEMC / temp.size(), relayTransfer);
+	private void wakeNetwork() {
+		if (network != null) {
+			network.wake();
+		}
+	}
 
-					for (IEmcStorage storage : temp) {
-						long a = storage.insertEmc(s, EmcAction.EXECUTE);
+	public EmcNeighbors getNeighbors() {
+		return neighbors;
+	}
 
-						if (a > 0L) {
-							storedEMC -= a;
-							setChanged();
+	@Nullable
+	public RelayNetwork getNetwork() {
+		return network;
+	}
 
-							if (storedEMC < s) {
-								break;
-							}
-						}
-					}
-				}
-			}
-		}
+	public void setNetwork(@Nullable RelayNetwork network) {
+		this.network = network;
 	}
 
 	@Override
@@ -141,6 +131,10 @@ public class RelayBlockEntity extends BlockEntity implements IEmcStorage {
 			return extractEmc(-e, action);
 		} else if (action.execute()) {
 			storedEMC += e;
+
+			if (e > 0L) {
+				wakeNetwork();
+			}
 		}
 
 		return e;
@@ -0,0 +1,118 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.container.CraftingRecipeCache;
+import dev.latvian.mods.projectex.emc.EmcSync;
+import dev.latvian.mods.projectex.generator.GeneratorScheduler;
+import dev.latvian.mods.projectex.generator.VirtualGenerators;
+import net.minecraft.ChatFormatting;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+
+/**
+ * /projectex debug commands
+ */
+@EventBusSubscriber(modid = ProjectEX.MOD_ID)
+public class ProjectEXCommands {
+	@SubscribeEvent
+	public static void registerCommands(RegisterCommandsEvent event) {
+		register(event.getDispatcher());
+	}
+
+	private static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+		dispatcher.register(Commands.literal("projectex")
+				.requires(source -> source.hasPermission(2))
+				.then(Commands.literal("generators")
+						.executes(ProjectEXCommands::generators)
+				)
+				.then(Commands.literal("sync")
+						.executes(ProjectEXCommands::sync)
+				)
+				.then(Commands.literal("recipes")
+						.executes(ProjectEXCommands::recipes)
+				)
+		);
+	}
+
+	private static int generators(CommandContext<CommandSourceStack> context) {
+		CommandSourceStack source = context.getSource();
+		MinecraftServer server = source.getServer();
+		int total = 0;
+
+		for (ServerLevel level : server.getAllLevels()) {
+			// Only report, don't create schedulers for levels that have none
+			GeneratorScheduler scheduler = GeneratorScheduler.getIfPresent(level);
+
+			if (scheduler == null || scheduler.size() == 0) {
+				continue;
+			}
+
+			total += scheduler.size();
+			String line = String.format("%s: %,d generators, %,d dormant, %,d waiting, %,d relay networks",
+					level.dimension().location(),
+					scheduler.size(),
+					scheduler.getDormantCount(),
+					scheduler.getBacklog(),
+					scheduler.getRelayNetworks().getNetworkCount());
+			source.sendSuccess(() -> Component.literal(line), false);
+		}
+
+		VirtualGenerators virtual = VirtualGenerators.get(server);
+		String line = String.format("Unloaded: %,d power flowers, %,d collectors",
+				virtual.getCount(VirtualGenerators.Kind.FLOWER),
+				virtual.getCount(VirtualGenerators.Kind.COLLECTOR));
+		source.sendSuccess(() -> Component.literal(line).withStyle(ChatFormatting.GRAY), false);
+		return total;
+	}
+
+	private static int sync(CommandContext<CommandSourceStack> context) {
+		String line = String.format("EMC syncs: %,d requested, %,d sent, %,d suppressed, %,d pending",
+				EmcSync.getRequested(),
+				EmcSync.getSent(),
+				EmcSync.getSuppressed(),
+				EmcSync.getPendingCount());
+		context.getSource().sendSuccess(() -> Component.literal(line), false);
+		return (int) Math.min(EmcSync.getSuppressed(), Integer.MAX_VALUE);
+	}
+
+	private static int recipes(CommandContext<CommandSourceStack> context) {
+		long hits = CraftingRecipeCache.getMenuHits() + CraftingRecipeCache.getSharedHits();
+		long total = hits + CraftingRecipeCache.getMisses();
+		String line = String.format("Crafting lookups: %,d menu hits, %,d shared hits, %,d misses (%.1f%% hit rate), %,d grids cached",
+				CraftingRecipeCache.getMenuHits(),
+				CraftingRecipeCache.getSharedHits(),
+				CraftingRecipeCache.getMisses(),
+				total == 0L ? 0D : hits * 100D / total,
+				CraftingRecipeCache.size());
+		context.getSource().sendSuccess(() -> Component.literal(line), false);
+		return CraftingRecipeCache.size();
+	}
+}
@@ -19,10 +19,14 @@
 
 package dev.latvian.mods.projectex.container;
 
+import dev.latvian.mods.projectex.emc.EmcSync;
+import dev.latvian.mods.projectex.emc.KnowledgeView;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
 import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
 import moze_intel.projecte.api.capabilities.PECapabilities;
-import moze_intel.projecte.api.capabilities.block_entity.IEmcStorage;
-import moze_intel.projecte.api.capabilities.item.IItemEmcHolder;
 import moze_intel.projecte.api.proxy.IEMCProxy;
 import moze_intel.projecte.gameObjs.container.TransmutationContainer;
 import moze_intel.projecte.gameObjs.container.slots.SlotPredicates;
@@ -38,14 +42,17 @@ import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.*;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.ItemStackLinkedSet;
 import net.minecraft.world.item.crafting.CraftingInput;
 import net.minecraft.world.item.crafting.CraftingRecipe;
 import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.item.crafting.RecipeHolder;
-import net.minecraft.world.item.crafting.RecipeType;
+import org.jetbrains.annotations.Nullable;
 
 import java.math.BigInteger;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * Alchemy Table Menu - Enhanced Transmutation Container with Crafting Grid
@@ -68,12 +75,19 @@ public class AlchemyTableMenu extends TransmutationContainer {
 	// Klein Star charging container (1 slot)
 	private final SimpleContainer kleinStarSlot = new SimpleContainer(1);
 
+	// Klein Star charging, throttled to its own interval
+	private final KleinStarCharger kleinStarCharger = new KleinStarCharger(kleinStarSlot);
+
 	// Player reference for recipe lookup
 	private final Player player;
 
 	// Slot index of the crafting result slot (set during initCustomSlots)
 	private int craftingResultSlotIndex = -1;
 
+	// Recipe the crafting grid matched last, tried first on the next lookup
+	@Nullable
+	private RecipeHolder<CraftingRecipe> lastRecipe = null;
+
 	/**
 	 * Network constructor - called on client when opening GUI from packet
 	 */
@@ -195,19 +209,16 @@ public class AlchemyTableMenu extends TransmutationContainer {
 		}
 
 		// Get the current recipe
-		CraftingInput craftingInput = craftingGrid.asCraftInput();
-		Optional<RecipeHolder<CraftingRecipe>> optionalRecipe = player.level()
-				.getRecipeManager()
-				.getRecipeFor(RecipeType.CRAFTING, craftingInput, player.level());
+		RecipeHolder<CraftingRecipe> recipeHolder = findRecipe(craftingGrid.asCraftInput());
 
-		if (optionalRecipe.isEmpty()) {
+		if (recipeHolder == null) {
 			return; // No valid recipe
 		}
 
-		CraftingRecipe recipe = optionalRecipe.get().value();
+		CraftingRecipe recipe = recipeHolder.value();
 
 		// Consume ingredients with priority: inventory first, then EMC for shortfall
-		boolean success = consumeIngredients(recipe, false);
+		boolean success = consumeIngredients(recipe, new InventoryIndex(player.getInventory()), false);
 
 		if (success) {
 			// Phase 3: Auto-learn the crafted item if it has EMC value
@@ -274,189 +285,162 @@ public class AlchemyTableMenu extends TransmutationContainer {
 	}
 
 	/**
-	 * Consume ingredients for crafting with smart priority system
-	 * Priority: 1. Real items from inventory, 2. EMC transmutation for missing items
-	 *
-	 * @param recipe The recipe being crafted
-	 * @param simulate If true, check if crafting is possible without consuming
-	 * @return true if ingredients were successfully consumed (or would be in simulate mode)
+	 * Count each distinct ingredient of a recipe
 	 */
-	private boolean consumeIngredients(CraftingRecipe recipe, boolean simulate) {
-		if (!(player instanceof ServerPlayer serverPlayer)) {
-			return false;
-		}
+	private static Reference2IntMap<Ingredient> getIngredientNeeds(CraftingRecipe recipe) {
+		Reference2IntMap<Ingredient> ingredientNeeds = new Reference2IntLinkedOpenHashMap<>();
 
-		// Get player's knowledge provider for EMC access
-		IKnowledgeProvider knowledge = serverPlayer.getCapability(PECapabilities.KNOWLEDGE_CAPABILITY);
-		if (knowledge == null) {
-			return false;
-		}
-
-		// Build ingredient requirement map from recipe
-		Map<ItemStack, Integer> ingredientNeeds = new HashMap<>();
 		for (Ingredient ingredient : recipe.getIngredients()) {
-			if (ingredient.isEmpty()) {
-				continue;
-			}
-
-			// Get first matching item from ingredient (for EMC lookup)
-			ItemStack[] matchingStacks = ingredient.getItems();
-			if (matchingStacks.length == 0) {
-				continue;
+			if (!ingredient.isEmpty()) {
+				ingredientNeeds.mergeInt(ingredient, 1, Integer::sum);
 			}
-
-			ItemStack representativeStack = matchingStacks[0].copy();
-			ingredientNeeds.merge(representativeStack, 1, Integer::sum);
 		}
 
-		// Track EMC cost and items to consume
-		long totalEmcCost = 0;
-		List<ItemStack> itemsToConsume = new ArrayList<>();
-
-		// For each ingredient, check inventory first, then calculate EMC shortfall
-		for (Map.Entry<ItemStack, Integer> entry : ingredientNeeds.entrySet()) {
-			ItemStack ingredientStack = entry.getKey();
-			int needed = entry.getValue();
+		return ingredientNeeds;
+	}
 
-			// Count how many of this ingredient are in player inventory
-			int foundInInventory = 0;
-			for (int i = 0; i < player.getInventory().getContainerSize(); i++) {
-				ItemStack invStack = player.getInventory().getItem(i);
-				if (ItemStack.isSameItemSameComponents(invStack, ingredientStack)) {
-					foundInInventory += invStack.getCount();
-				}
-			}
+	/**
+	 * One distinct ingredient of a recipe
+	 *
+	 * @param onHand matching items in the inventory, cheapest first
+	 * @param perCraft how many one craft uses
+	 * @param emc EMC per item when transmuting the shortfall, 0 if it can't be transmuted
+	 */
+	private record Requirement(ItemStack[] onHand, int perCraft, long emc) {
+	}
 
-			// Calculate shortfall (how many need to be transmuted)
-			int shortfall = needed - foundInInventory;
+	private static List<Requirement> getRequirements(CraftingRecipe recipe, IKnowledgeProvider knowledge, InventoryIndex inventory) {
+		IngredientResolver.Session resolver = new IngredientResolver.Session(knowledge, inventory);
+		Reference2IntMap<Ingredient> ingredientNeeds = getIngredientNeeds(recipe);
+		List<Requirement> requirements = new ArrayList<>(ingredientNeeds.size());
 
-			if (shortfall > 0) {
-				// Need to transmute some items - calculate EMC cost
-				long emcPerItem = IEMCProxy.INSTANCE.getValue(ingredientStack);
+		for (Reference2IntMap.Entry<Ingredient> entry : ingredientNeeds.reference2IntEntrySet()) {
+			IngredientResolver.Supply supply = resolver.supply(entry.getKey());
 
-				if (emcPerItem <= 0) {
-					// Item has no EMC value - can't transmute
-					return false;
-				}
+			if (supply.transmute().isEmpty()) {
+				continue;
+			}
 
-				// Check if player has learned this item
-				if (!knowledge.hasKnowledge(ingredientStack)) {
-					// Player hasn't learned this item - can't transmute
-					return false;
-				}
+			// Only learned items with an EMC value can be transmuted
+			long emcPerItem = IEMCProxy.INSTANCE.getValue(supply.transmute());
 
-				totalEmcCost += emcPerItem * shortfall;
+			if (emcPerItem > 0L && !knowledge.hasKnowledge(supply.transmute())) {
+				emcPerItem = 0L;
 			}
 
-			// Track items to consume from inventory (up to the amount needed)
-			int toConsumeFromInventory = Math.min(needed, foundInInventory);
-			if (toConsumeFromInventory > 0) {
-				ItemStack consumeStack = ingredientStack.copy();
-				consumeStack.setCount(toConsumeFromInventory);
-				itemsToConsume.add(consumeStack);
-			}
+			requirements.add(new Requirement(supply.onHand(), entry.getIntValue(), emcPerItem));
 		}
 
-		// Check if player has enough EMC for the shortfall
-		BigInteger playerEmc = knowledge.getEmc();
-		if (playerEmc.compareTo(BigInteger.valueOf(totalEmcCost)) < 0) {
-			// Not enough EMC
-			return false;
-		}
+		// Ingredients with the fewest usable items take from the inventory first,
+		// so a tag sharing an item with a specific ingredient doesn't use it up
+		requirements.sort(Comparator.comparingInt(requirement -> requirement.onHand().length));
+		return requirements;
+	}
 
-		// If simulating, we're done (everything checks out)
-		if (simulate) {
-			return true;
-		}
+	/**
+	 * Split the ingredients for a number of crafts between the inventory and EMC
+	 *
+	 * @param take filled with how many of each item to take from the inventory
+	 * @return EMC needed for the shortfall, Long.MAX_VALUE if it can't be covered
+	 */
+	private static long allocate(List<Requirement> requirements, InventoryIndex inventory, int crafts, Object2IntMap<ItemStack> take) {
+		long total = 0L;
 
-		// Execute consumption: inventory first, then EMC
-		// 1. Consume from inventory
-		for (ItemStack consumeStack : itemsToConsume) {
-			int remainingToConsume = consumeStack.getCount();
+		for (Requirement requirement : requirements) {
+			long shortfall = (long) requirement.perCraft() * crafts;
 
-			for (int i = 0; i < player.getInventory().getContainerSize() && remainingToConsume > 0; i++) {
-				ItemStack invStack = player.getInventory().getItem(i);
+			for (ItemStack stack : requirement.onHand()) {
+				if (shortfall <= 0L) {
+					break;
+				}
 
-				if (ItemStack.isSameItemSameComponents(invStack, consumeStack)) {
-					int toTake = Math.min(remainingToConsume, invStack.getCount());
-					invStack.shrink(toTake);
-					remainingToConsume -= toTake;
+				int taken = take.getInt(stack);
+				int used = (int) Math.min(inventory.getCount(stack) - taken, shortfall);
 
-					if (invStack.isEmpty()) {
-						player.getInventory().setItem(i, ItemStack.EMPTY);
-					}
+				if (used > 0) {
+					take.put(stack, taken + used);
+					shortfall -= used;
 				}
 			}
-		}
 
-		// 2. Consume EMC for shortfall
-		if (totalEmcCost > 0) {
-			BigInteger newEmc = playerEmc.subtract(BigInteger.valueOf(totalEmcCost));
-			knowledge.setEmc(newEmc);
-			knowledge.syncEmc(serverPlayer);
+			if (shortfall <= 0L) {
+				continue;
+			} else if (requirement.emc() <= 0L) {
+				return Long.MAX_VALUE;
+			}
+
+			long hi = Math.multiplyHigh(requirement.emc(), shortfall);
+			long cost = requirement.emc() * shortfall;
+
+			if (hi != 0L || cost < 0L || cost > Long.MAX_VALUE - total) {
+				return Long.MAX_VALUE;
+			}
+
+			total += cost;
 		}
 
-		return true;
+		return total;
 	}
 
 	/**
-	 * Klein Star Auto-Charging (Phase 4)
-	 * Called every tick to charge Klein Star from player's EMC pool
-	 * Default charge rate: 1000 EMC/tick (configurable later)
+	 * Total EMC needed for a number of crafts, Long.MAX_VALUE if they can't be done
 	 */
-	public void chargeKleinStar() {
-		if (player.level().isClientSide) {
-			return; // Only process on server
-		}
+	private static long getEmcCost(List<Requirement> requirements, InventoryIndex inventory, int crafts) {
+		return allocate(requirements, inventory, crafts, new Object2IntOpenCustomHashMap<>(ItemStackLinkedSet.TYPE_AND_TAG));
+	}
 
-		// Only charge for server players
+	/**
+	 * Consume ingredients for crafting with smart priority system
+	 * Priority: 1. Real items from inventory, 2. EMC transmutation for missing items
+	 *
+	 * @param recipe The recipe being crafted
+	 * @param inventory Index of the player's inventory, updated as items are consumed
+	 * @param simulate If true, check if crafting is possible without consuming
+	 * @return true if ingredients were successfully consumed (or would be in simulate mode)
+	 */
+	private boolean consumeIngredients(CraftingRecipe recipe, InventoryIndex inventory, boolean simulate) {
 		if (!(player instanceof ServerPlayer serverPlayer)) {
-			return;
-		}
-
-		// Check if Klein Star slot has an item
-		ItemStack kleinStarStack = kleinStarSlot.getItem(0);
-		if (kleinStarStack.isEmpty()) {
-			return;
-		}
-
-		// Get Klein Star's EMC holder capability
-		IItemEmcHolder kleinStarHolder = kleinStarStack.getCapability(PECapabilities.EMC_HOLDER_ITEM_CAPABILITY);
-		if (kleinStarHolder == null) {
-			return; // Not a Klein Star
+			return false;
 		}
 
 		// Get player's knowledge provider for EMC access
 		IKnowledgeProvider knowledge = serverPlayer.getCapability(PECapabilities.KNOWLEDGE_CAPABILITY);
 		if (knowledge == null) {
-			return; // Player has no EMC capability
+			return false;
 		}
 
-		// Calculate how much EMC to transfer
-		BigInteger playerEmc = knowledge.getEmc();
-		long neededEmc = kleinStarHolder.getNeededEmc(kleinStarStack);
+		List<Requirement> requirements = getRequirements(recipe, knowledge, inventory);
 
-		if (neededEmc <= 0 || playerEmc.compareTo(BigInteger.ZERO) <= 0) {
-			return; // Klein Star is full or player has no EMC
+		// Check if player has enough EMC for the shortfall
+		if (getEmcCost(requirements, inventory, 1) > KnowledgeView.getBalance(knowledge)) {
+			return false;
 		}
 
-		// Charge rate: 1000 EMC/tick (configurable later)
-		long chargeRate = 1000L;
-		long emcToTransfer = Math.min(chargeRate, Math.min(playerEmc.longValue(), neededEmc));
+		// If simulating, we're done (everything checks out)
+		if (!simulate) {
+			craft(serverPlayer, knowledge, requirements, inventory, 1);
+		}
 
-		// Try to insert EMC into Klein Star (simulate first)
-		long actualInserted = kleinStarHolder.insertEmc(kleinStarStack, emcToTransfer, IEmcStorage.EmcAction.SIMULATE);
+		return true;
+	}
 
-		if (actualInserted > 0) {
-			// Extract from player
-			BigInteger newPlayerEmc = playerEmc.subtract(BigInteger.valueOf(actualInserted));
-			knowledge.setEmc(newPlayerEmc);
+	/**
+	 * Take the ingredients for a number of crafts: inventory first, then one EMC debit for the whole shortfall.
+	 * The crafts must be affordable, see {@link #calculateMaxCrafts}.
+	 */
+	private static void craft(ServerPlayer serverPlayer, IKnowledgeProvider knowledge, List<Requirement> requirements, InventoryIndex inventory, int crafts) {
+		Object2IntMap<ItemStack> take = new Object2IntOpenCustomHashMap<>(ItemStackLinkedSet.TYPE_AND_TAG);
+		long totalEmcCost = allocate(requirements, inventory, crafts, take);
 
-			// Insert into Klein Star (execute)
-			kleinStarHolder.insertEmc(kleinStarStack, actualInserted, IEmcStorage.EmcAction.EXECUTE);
+		// 1. Consume from inventory (up to the amount needed)
+		for (Object2IntMap.Entry<ItemStack> entry : take.object2IntEntrySet()) {
+			inventory.consume(entry.getKey(), entry.getIntValue());
+		}
 
-			// Mark container as changed to sync to client
-			broadcastChanges();
+		// 2. Consume EMC for shortfall
+		if (totalEmcCost > 0L) {
+			knowledge.setEmc(knowledge.getEmc().subtract(BigInteger.valueOf(totalEmcCost)));
+			EmcSync.markDirty(serverPlayer);
 		}
 	}
 
@@ -472,12 +456,9 @@ public class AlchemyTableMenu extends TransmutationContainer {
 		CraftingInput craftingInput = craftingGrid.asCraftInput();
 
 		// Look up recipe based on crafting grid contents
-		Optional<RecipeHolder<CraftingRecipe>> optionalRecipe = player.level()
-				.getRecipeManager()
-				.getRecipeFor(RecipeType.CRAFTING, craftingInput, player.level());
+		RecipeHolder<CraftingRecipe> recipeHolder = findRecipe(craftingInput);
 
-		if (optionalRecipe.isPresent()) {
-			RecipeHolder<CraftingRecipe> recipeHolder = optionalRecipe.get();
+		if (recipeHolder != null) {
 			CraftingRecipe recipe = recipeHolder.value();
 
 			// Check if player can craft this recipe
@@ -492,6 +473,20 @@ public class AlchemyTableMenu extends TransmutationContainer {
 		broadcastChanges();
 	}
 
+	/**
+	 * Recipe for the crafting grid, see {@link CraftingRecipeCache}
+	 */
+	@Nullable
+	private RecipeHolder<CraftingRecipe> findRecipe(CraftingInput craftingInput) {
+		RecipeHolder<CraftingRecipe> recipe = CraftingRecipeCache.find(player.level(), craftingInput, lastRecipe);
+
+		if (recipe != null) {
+			lastRecipe = recipe;
+		}
+
+		return recipe;
+	}
+
 	/**
 	 * Called when container contents change - update crafting result
 	 */
@@ -509,10 +504,12 @@ public class AlchemyTableMenu extends TransmutationContainer {
 	 */
 	@Override
 	public void broadcastChanges() {
-		super.broadcastChanges();
+		// Charge Klein Star from player's EMC pool first, so this broadcast already carries the change
+		if (player instanceof ServerPlayer serverPlayer) {
+			kleinStarCharger.tick(serverPlayer);
+		}
 
-		// Charge Klein Star from player's EMC pool (1000 EMC/tick)
-		chargeKleinStar();
+		super.broadcastChanges();
 	}
 
 	/**
@@ -568,6 +565,9 @@ public class AlchemyTableMenu extends TransmutationContainer {
 	 * - Available EMC
 	 * - Output item stack limit (up to 64 or item max)
 	 * - Recipe ingredient availability
+	 *
+	 * The count is worked out up front, then ingredients and EMC are taken once
+	 * and the output is handed over as full stacks.
 	 */
 	private ItemStack handleBulkCrafting(ItemStack craftedStack) {
 		if (player.level().isClientSide || !(player instanceof ServerPlayer serverPlayer)) {
@@ -575,16 +575,13 @@ public class AlchemyTableMenu extends TransmutationContainer {
 		}
 
 		// Get the current recipe
-		CraftingInput craftingInput = craftingGrid.asCraftInput();
-		Optional<RecipeHolder<CraftingRecipe>> optionalRecipe = player.level()
-				.getRecipeManager()
-				.getRecipeFor(RecipeType.CRAFTING, craftingInput, player.level());
+		RecipeHolder<CraftingRecipe> recipeHolder = findRecipe(craftingGrid.asCraftInput());
 
-		if (optionalRecipe.isEmpty()) {
+		if (recipeHolder == null) {
 			return ItemStack.EMPTY;
 		}
 
-		CraftingRecipe recipe = optionalRecipe.get().value();
+		CraftingRecipe recipe = recipeHolder.value();
 
 		// Get player's knowledge provider for EMC access
 		IKnowledgeProvider knowledge = serverPlayer.getCapability(PECapabilities.KNOWLEDGE_CAPABILITY);
@@ -592,130 +589,67 @@ public class AlchemyTableMenu extends TransmutationContainer {
 			return ItemStack.EMPTY;
 		}
 
+		// One inventory pass for the whole operation
+		InventoryIndex inventory = new InventoryIndex(player.getInventory());
+		List<Requirement> requirements = getRequirements(recipe, knowledge, inventory);
+
+		// Limit to stack size (64 or item max)
+		int stackLimit = craftedStack.getMaxStackSize() / craftedStack.getCount();
+
 		// Calculate maximum number of crafts possible
-		int maxCrafts = calculateMaxCrafts(recipe, knowledge);
+		int totalCrafted = calculateMaxCrafts(requirements, inventory, KnowledgeView.getBalance(knowledge), stackLimit);
 
-		if (maxCrafts <= 0) {
+		if (totalCrafted <= 0) {
 			return ItemStack.EMPTY;
 		}
 
-		// Limit to stack size (64 or item max)
-		int stackLimit = craftedStack.getMaxStackSize();
-		maxCrafts = Math.min(maxCrafts, stackLimit / craftedStack.getCount());
-
-		// Perform bulk crafting
-		int totalCrafted = 0;
-		boolean hasLearnedThisSession = false; // Track if we've learned this item in this bulk craft
+		craft(serverPlayer, knowledge, requirements, inventory, totalCrafted);
 
-		for (int i = 0; i < maxCrafts; i++) {
-			// Try to craft one item
-			if (!consumeIngredients(recipe, true)) {
-				break; // Can't craft anymore (out of EMC or ingredients)
-			}
+		// Hand over the output as full stacks, whatever doesn't fit is dropped
+		int remaining = totalCrafted * craftedStack.getCount();
 
-			// Actually consume ingredients
-			if (!consumeIngredients(recipe, false)) {
-				break; // Something went wrong
-			}
+		while (remaining > 0) {
+			ItemStack result = craftedStack.copyWithCount(Math.min(remaining, craftedStack.getMaxStackSize()));
+			remaining -= result.getCount();
 
-			// Add crafted item to player inventory
-			ItemStack result = craftedStack.copy();
 			if (!player.getInventory().add(result)) {
-				// Inventory full - stop crafting
-				break;
-			}
-
-			// Auto-learn on first craft only (prevent spam)
-			if (!hasLearnedThisSession) {
-				autoLearnItem(craftedStack, serverPlayer);
-				hasLearnedThisSession = true;
+				player.drop(result, false);
 			}
-
-			totalCrafted++;
 		}
 
-		if (totalCrafted > 0) {
-			// Clear crafting grid and update result
-			craftingGrid.clearContent();
-			updateCraftingResult();
+		// Auto-learn once per bulk craft (prevent spam)
+		autoLearnItem(craftedStack, serverPlayer);
 
-			// Return a stack representing what was crafted (for sound/animation purposes)
-			ItemStack craftedResult = craftedStack.copy();
-			craftedResult.setCount(totalCrafted * craftedStack.getCount());
-			return craftedResult;
-		}
+		// Clear crafting grid and update result
+		craftingGrid.clearContent();
+		updateCraftingResult();
 
-		return ItemStack.EMPTY;
+		// Return a stack representing what was crafted (for sound/animation purposes)
+		return craftedStack.copyWithCount(totalCrafted * craftedStack.getCount());
 	}
 
 	/**
 	 * Calculate maximum number of times a recipe can be crafted
 	 * Based on: available inventory items, player EMC, and stack limits
+	 *
+	 * The EMC cost only grows with the number of crafts, so the largest
+	 * affordable count is found by bisection instead of trying one at a time.
 	 */
-	private int calculateMaxCrafts(CraftingRecipe recipe, IKnowledgeProvider knowledge) {
-		int maxCrafts = Integer.MAX_VALUE;
-
-		// Build ingredient requirement map from recipe
-		Map<ItemStack, Integer> ingredientNeeds = new HashMap<>();
-		for (Ingredient ingredient : recipe.getIngredients()) {
-			if (ingredient.isEmpty()) {
-				continue;
-			}
+	private static int calculateMaxCrafts(List<Requirement> requirements, InventoryIndex inventory, long balance, int limit) {
+		int low = 0;
+		int high = limit;
 
-			ItemStack[] matchingStacks = ingredient.getItems();
-			if (matchingStacks.length == 0) {
-				continue;
-			}
-
-			ItemStack representativeStack = matchingStacks[0].copy();
-			ingredientNeeds.merge(representativeStack, 1, Integer::sum);
-		}
-
-		// Calculate max crafts based on inventory items and EMC budget
-		BigInteger playerEmc = knowledge.getEmc();
-		long totalEmcCostPerCraft = 0;
-
-		for (Map.Entry<ItemStack, Integer> entry : ingredientNeeds.entrySet()) {
-			ItemStack ingredientStack = entry.getKey();
-			int neededPerCraft = entry.getValue();
-
-			// Count how many of this ingredient are in player inventory
-			int foundInInventory = 0;
-			for (int i = 0; i < player.getInventory().getContainerSize(); i++) {
-				ItemStack invStack = player.getInventory().getItem(i);
-				if (ItemStack.isSameItemSameComponents(invStack, ingredientStack)) {
-					foundInInventory += invStack.getCount();
-				}
-			}
-
-			// Calculate how many crafts are possible with inventory items
-			int craftsFromInventory = foundInInventory / neededPerCraft;
-
-			// If we need more than inventory provides, calculate EMC cost
-			if (craftsFromInventory < maxCrafts) {
-				long emcPerItem = IEMCProxy.INSTANCE.getValue(ingredientStack);
-
-				if (emcPerItem <= 0 || !knowledge.hasKnowledge(ingredientStack)) {
-					// Can't transmute this item - limit to inventory
-					maxCrafts = Math.min(maxCrafts, craftsFromInventory);
-					continue;
-				}
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
 
-				// Calculate EMC cost per craft for items not in inventory
-				int itemsNeededFromEmc = Math.max(0, neededPerCraft - (foundInInventory % neededPerCraft));
-				totalEmcCostPerCraft += emcPerItem * itemsNeededFromEmc;
+			if (getEmcCost(requirements, inventory, mid) <= balance) {
+				low = mid;
+			} else {
+				high = mid - 1;
 			}
-
-			maxCrafts = Math.min(maxCrafts, craftsFromInventory);
-		}
-
-		// Calculate max crafts based on EMC budget
-		if (totalEmcCostPerCraft > 0) {
-			long emcBudgetCrafts = playerEmc.divide(BigInteger.valueOf(totalEmcCostPerCraft)).longValue();
-			maxCrafts = Math.min(maxCrafts, (int) emcBudgetCrafts);
 		}
 
-		return maxCrafts;
+		return low;
 	}
 
 	/**
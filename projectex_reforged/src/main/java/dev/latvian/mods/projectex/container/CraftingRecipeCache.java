@@ -0,0 +1,179 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex.container;
+
+import dev.latvian.mods.projectex.ProjectEX;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.CraftingInput;
+import net.minecraft.world.item.crafting.CraftingRecipe;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.AddReloadListenerEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Crafting recipe lookups for the Alchemy Table grid.
+ *
+ * A plain lookup tests every crafting recipe until one matches, which adds up
+ * in large packs since the grid is looked up on every slot change. Each menu
+ * first retries the recipe it matched last, then this server-wide cache keyed
+ * by a 64-bit hash of the grid's items and components, and only then the
+ * recipe manager.
+ *
+ * Cached recipes are checked with {@code matches} before use, so a hash
+ * collision can't craft the wrong thing. Grids with no recipe keep a copy of
+ * their items instead, compared item by item, so a collision can't hide a
+ * recipe either. The cache is dropped on datapack reload, when the recipes
+ * themselves change.
+ */
+@EventBusSubscriber(modid = ProjectEX.MOD_ID)
+public class CraftingRecipeCache {
+	private static final int MAX_SIZE = 4096;
+
+	// Grid hash -> matching recipe, or the grid itself when nothing matches
+	private static final Long2ObjectLinkedOpenHashMap<Entry> CACHE = new Long2ObjectLinkedOpenHashMap<>();
+
+	private record Entry(@Nullable RecipeHolder<CraftingRecipe> recipe, int width, ItemStack[] grid) {
+		private static final ItemStack[] NO_GRID = new ItemStack[0];
+
+		private boolean matches(Level level, CraftingInput input) {
+			if (recipe != null) {
+				return recipe.value().matches(input, level);
+			} else if (width != input.width() || grid.length != input.size()) {
+				return false;
+			}
+
+			for (int i = 0; i < grid.length; i++) {
+				if (!ItemStack.isSameItemSameComponents(grid[i], input.getItem(i))) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
+	private static long menuHits = 0L;
+	private static long sharedHits = 0L;
+	private static long misses = 0L;
+
+	/**
+	 * Find the crafting recipe for a grid. Server thread only.
+	 *
+	 * @param last the recipe this grid matched last time, tried first
+	 */
+	@Nullable
+	public static RecipeHolder<CraftingRecipe> find(Level level, CraftingInput input, @Nullable RecipeHolder<CraftingRecipe> last) {
+		if (input.isEmpty()) {
+			return null;
+		}
+
+		if (last != null && last.value().matches(input, level)) {
+			menuHits++;
+			return last;
+		}
+
+		long hash = hash(input);
+		Entry cached = CACHE.getAndMoveToLast(hash);
+
+		if (cached != null && cached.matches(level, input)) {
+			sharedHits++;
+			return cached.recipe();
+		}
+
+		misses++;
+		RecipeHolder<CraftingRecipe> recipe = level.getRecipeManager().getRecipeFor(RecipeType.CRAFTING, input, level).orElse(null);
+		CACHE.putAndMoveToLast(hash, recipe != null ? new Entry(recipe, 0, Entry.NO_GRID) : new Entry(null, input.width(), copyGrid(input)));
+
+		if (CACHE.size() > MAX_SIZE) {
+			CACHE.removeFirst();
+		}
+
+		return recipe;
+	}
+
+	private static ItemStack[] copyGrid(CraftingInput input) {
+		ItemStack[] grid = new ItemStack[input.size()];
+
+		for (int i = 0; i < grid.length; i++) {
+			grid[i] = input.getItem(i).copyWithCount(1);
+		}
+
+		return grid;
+	}
+
+	private static long hash(CraftingInput input) {
+		long hash = input.width() * 31L + input.height();
+
+		for (ItemStack stack : input.items()) {
+			hash = hash * 0x9E3779B97F4A7C15L + (stack.isEmpty() ? 0 : ItemStack.hashItemAndComponents(stack));
+		}
+
+		return hash;
+	}
+
+	public static void clear() {
+		CACHE.clear();
+	}
+
+	/**
+	 * Lookups answered by the menu's last recipe
+	 */
+	public static long getMenuHits() {
+		return menuHits;
+	}
+
+	/**
+	 * Lookups answered by the shared cache
+	 */
+	public static long getSharedHits() {
+		return sharedHits;
+	}
+
+	/**
+	 * Lookups that had to go through the recipe manager
+	 */
+	public static long getMisses() {
+		return misses;
+	}
+
+	public static int size() {
+		return CACHE.size();
+	}
+
+	@SubscribeEvent
+	public static void onAddReloadListener(AddReloadListenerEvent event) {
+		event.addListener((ResourceManagerReloadListener) resourceManager -> clear());
+	}
+
+	@SubscribeEvent
+	public static void onServerStopped(ServerStoppedEvent event) {
+		clear();
+		menuHits = 0L;
+		sharedHits = 0L;
+		misses = 0L;
+	}
+}
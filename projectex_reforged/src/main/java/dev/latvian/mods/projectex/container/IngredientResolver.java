@@ -0,0 +1,199 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex.container;
+
+import dev.latvian.mods.projectex.ProjectEX;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
+import moze_intel.projecte.api.event.EMCRemapEvent;
+import moze_intel.projecte.api.proxy.IEMCProxy;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.AddReloadListenerEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Picks which item a recipe ingredient should be made of for a player.
+ *
+ * An ingredient such as a tag matches many items. Instead of always taking
+ * the first one, a {@link Session} lists every candidate the player already
+ * has in their inventory, and the cheapest one they know to transmute for
+ * whatever those don't cover. So a recipe asking for four planks uses two oak
+ * and two birch from the inventory before paying EMC, and works with whichever
+ * planks the player has learned.
+ *
+ * Each ingredient's candidates are expanded once and kept sorted by EMC value,
+ * until the next datapack reload or EMC remap. Supplies are remembered for the
+ * length of a session, which is one craft operation.
+ */
+@EventBusSubscriber(modid = ProjectEX.MOD_ID)
+public class IngredientResolver {
+	/**
+	 * Items matching an ingredient, cheapest first. Items without an EMC value come last.
+	 */
+	private record Candidates(ItemStack[] stacks, long[] emc) {
+		private static final Candidates EMPTY = new Candidates(new ItemStack[0], new long[0]);
+	}
+
+	private static final Reference2ObjectOpenHashMap<Ingredient, Candidates> CANDIDATES = new Reference2ObjectOpenHashMap<>();
+
+	private static Candidates getCandidates(Ingredient ingredient) {
+		Candidates candidates = CANDIDATES.get(ingredient);
+
+		if (candidates == null) {
+			candidates = expand(ingredient);
+			CANDIDATES.put(ingredient, candidates);
+		}
+
+		return candidates;
+	}
+
+	private static Candidates expand(Ingredient ingredient) {
+		ItemStack[] items = ingredient.getItems();
+
+		if (items.length == 0) {
+			return Candidates.EMPTY;
+		}
+
+		ItemStack[] stacks = new ItemStack[items.length];
+		long[] emc = new long[items.length];
+		Integer[] order = new Integer[items.length];
+
+		for (int i = 0; i < items.length; i++) {
+			emc[i] = IEMCProxy.INSTANCE.getValue(items[i]);
+			order[i] = i;
+		}
+
+		// Stable, so equal values keep the ingredient's own order
+		Arrays.sort(order, Comparator.comparingLong(i -> emc[i] <= 0L ? Long.MAX_VALUE : emc[i]));
+
+		long[] sortedEmc = new long[items.length];
+
+		for (int i = 0; i < items.length; i++) {
+			stacks[i] = items[order[i]].copy();
+			sortedEmc[i] = emc[order[i]];
+		}
+
+		return new Candidates(stacks, sortedEmc);
+	}
+
+	public static void clear() {
+		CANDIDATES.clear();
+	}
+
+	/**
+	 * Where an ingredient can come from. Don't modify the stacks.
+	 *
+	 * @param onHand    matching items in the inventory, cheapest first
+	 * @param transmute cheapest known matching item, or the cheapest candidate if none is
+	 *                  known so the caller can report it as missing. Empty if nothing matches.
+	 */
+	public record Supply(ItemStack[] onHand, ItemStack transmute) {
+		private static final Supply EMPTY = new Supply(new ItemStack[0], ItemStack.EMPTY);
+	}
+
+	/**
+	 * Ingredient supplies for one player during one craft operation
+	 */
+	public static class Session {
+		private final IKnowledgeProvider knowledge;
+		private final InventoryIndex inventory;
+		private final Reference2ObjectOpenHashMap<Ingredient, Supply> supplies = new Reference2ObjectOpenHashMap<>();
+
+		public Session(IKnowledgeProvider knowledge, InventoryIndex inventory) {
+			this.knowledge = knowledge;
+			this.inventory = inventory;
+		}
+
+		public Supply supply(Ingredient ingredient) {
+			Supply supply = supplies.get(ingredient);
+
+			if (supply == null) {
+				supply = find(getCandidates(ingredient));
+				supplies.put(ingredient, supply);
+			}
+
+			return supply;
+		}
+
+		/**
+		 * The single item to use for an ingredient: the cheapest one in the inventory,
+		 * else the one to transmute. Don't modify the returned stack.
+		 *
+		 * @return the picked item, or empty if nothing matches the ingredient
+		 */
+		public ItemStack resolve(Ingredient ingredient) {
+			Supply supply = supply(ingredient);
+			return supply.onHand().length > 0 ? supply.onHand()[0] : supply.transmute();
+		}
+
+		private Supply find(Candidates candidates) {
+			ItemStack[] stacks = candidates.stacks();
+
+			if (stacks.length == 0) {
+				return Supply.EMPTY;
+			}
+
+			List<ItemStack> onHand = new ArrayList<>(1);
+
+			for (ItemStack stack : stacks) {
+				if (inventory.getCount(stack) > 0) {
+					onHand.add(stack);
+				}
+			}
+
+			// Cheapest first, so the cheapest known one is the most affordable
+			long[] emc = candidates.emc();
+			ItemStack transmute = stacks[0];
+
+			for (int i = 0; i < stacks.length; i++) {
+				if (emc[i] > 0L && knowledge.hasKnowledge(stacks[i])) {
+					transmute = stacks[i];
+					break;
+				}
+			}
+
+			return new Supply(onHand.toArray(new ItemStack[0]), transmute);
+		}
+	}
+
+	@SubscribeEvent
+	public static void onAddReloadListener(AddReloadListenerEvent event) {
+		event.addListener((ResourceManagerReloadListener) resourceManager -> clear());
+	}
+
+	@SubscribeEvent
+	public static void onRemap(EMCRemapEvent event) {
+		clear();
+	}
+
+	@SubscribeEvent
+	public static void onServerStopped(ServerStoppedEvent event) {
+		clear();
+	}
+}
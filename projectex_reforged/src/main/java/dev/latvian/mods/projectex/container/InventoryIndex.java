@@ -0,0 +1,128 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex.container;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenCustomHashMap;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.ItemStackLinkedSet;
+
+/**
+ * Snapshot of a player's inventory for one craft operation.
+ *
+ * Built in a single pass over the inventory, it maps each item + components
+ * to the total count and the slots holding it. Counting an ingredient is then
+ * a map lookup, and consuming one only visits its own slots, instead of every
+ * ingredient scanning the whole inventory again.
+ *
+ * The index is kept up to date as slots are drained through it. Anything that
+ * adds items to the inventory behind its back has to {@link #rebuild} it.
+ */
+public class InventoryIndex {
+	private static class Entry {
+		private int count = 0;
+		private final IntArrayList slots = new IntArrayList(4);
+	}
+
+	private final Inventory inventory;
+	private final Object2ObjectOpenCustomHashMap<ItemStack, Entry> entries = new Object2ObjectOpenCustomHashMap<>(ItemStackLinkedSet.TYPE_AND_TAG);
+
+	public InventoryIndex(Inventory inventory) {
+		this.inventory = inventory;
+		rebuild();
+	}
+
+	/**
+	 * Index the inventory again from scratch
+	 */
+	public void rebuild() {
+		entries.clear();
+
+		for (int i = 0; i < inventory.getContainerSize(); i++) {
+			ItemStack stack = inventory.getItem(i);
+
+			if (stack.isEmpty()) {
+				continue;
+			}
+
+			Entry entry = entries.get(stack);
+
+			if (entry == null) {
+				entry = new Entry();
+				entries.put(stack.copyWithCount(1), entry);
+			}
+
+			entry.count += stack.getCount();
+			entry.slots.add(i);
+		}
+	}
+
+	/**
+	 * Total count of an item with the same components
+	 */
+	public int getCount(ItemStack stack) {
+		Entry entry = entries.get(stack);
+		return entry == null ? 0 : entry.count;
+	}
+
+	/**
+	 * Take up to amount of an item out of the inventory, first slots first
+	 *
+	 * @return number of items taken
+	 */
+	public int consume(ItemStack stack, int amount) {
+		Entry entry = entries.get(stack);
+
+		if (entry == null || amount <= 0) {
+			return 0;
+		}
+
+		int taken = 0;
+
+		while (taken < amount && !entry.slots.isEmpty()) {
+			int slot = entry.slots.getInt(0);
+			ItemStack invStack = inventory.getItem(slot);
+
+			// The slot may have been changed by something else since indexing
+			if (!ItemStack.isSameItemSameComponents(invStack, stack)) {
+				entry.slots.removeInt(0);
+				continue;
+			}
+
+			int toTake = Math.min(amount - taken, invStack.getCount());
+			invStack.shrink(toTake);
+			taken += toTake;
+
+			if (invStack.isEmpty()) {
+				inventory.setItem(slot, ItemStack.EMPTY);
+				entry.slots.removeInt(0);
+			}
+		}
+
+		entry.count = Math.max(0, entry.count - taken);
+
+		if (entry.slots.isEmpty()) {
+			entries.remove(stack);
+		}
+
+		return taken;
+	}
+}
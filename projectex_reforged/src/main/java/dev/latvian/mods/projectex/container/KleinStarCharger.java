@@ -0,0 +1,109 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex.container;
+
+import dev.latvian.mods.projectex.ProjectEXConfig;
+import dev.latvian.mods.projectex.emc.EmcSync;
+import dev.latvian.mods.projectex.emc.KnowledgeView;
+import dev.latvian.mods.projectex.emc.OwnerCache;
+import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
+import moze_intel.projecte.api.capabilities.PECapabilities;
+import moze_intel.projecte.api.capabilities.block_entity.IEmcStorage;
+import moze_intel.projecte.api.capabilities.item.IItemEmcHolder;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.ItemStack;
+
+import java.math.BigInteger;
+
+/**
+ * Charges the star in an Alchemy Table's charging slot from the player's EMC.
+ *
+ * Runs at most once per {@code kleinStarChargeIntervalTicks}, however often
+ * the menu broadcasts, and moves everything for the elapsed interval in one
+ * transfer: one debit and one sync request per interval. The rate scales with
+ * the star's capacity, so an empty star of any tier, Magnum and Colossal
+ * included, fills in about {@code kleinStarFillSeconds}.
+ */
+public class KleinStarCharger {
+	// Least EMC per tick, what every star used to get
+	public static final long BASE_RATE = 1000L;
+
+	private final Container container;
+	private int lastCharge = Integer.MIN_VALUE;
+
+	public KleinStarCharger(Container container) {
+		this.container = container;
+	}
+
+	/**
+	 * EMC per tick for a star
+	 */
+	public static long getRate(IItemEmcHolder holder, ItemStack stack) {
+		return Math.max(BASE_RATE, holder.getMaximumEmc(stack) / (ProjectEXConfig.KLEIN_STAR_FILL_SECONDS.get() * 20L));
+	}
+
+	/**
+	 * Called whenever the menu broadcasts changes, charges if an interval has passed
+	 */
+	public void tick(ServerPlayer player) {
+		int now = player.server.getTickCount();
+		int interval = ProjectEXConfig.KLEIN_STAR_CHARGE_INTERVAL_TICKS.get();
+
+		if (lastCharge != Integer.MIN_VALUE && now - lastCharge < interval) {
+			return;
+		}
+
+		lastCharge = now;
+		ItemStack stack = container.getItem(0);
+
+		if (stack.isEmpty()) {
+			return;
+		}
+
+		IItemEmcHolder holder = stack.getCapability(PECapabilities.EMC_HOLDER_ITEM_CAPABILITY);
+		IKnowledgeProvider knowledge = OwnerCache.getKnowledge(player.getUUID());
+
+		if (holder == null || knowledge == null) {
+			return;
+		}
+
+		long needed = holder.getNeededEmc(stack);
+		long balance = KnowledgeView.getBalance(knowledge);
+
+		if (needed <= 0L || balance <= 0L) {
+			return;
+		}
+
+		long rate = getRate(holder, stack);
+		long amount = rate > Long.MAX_VALUE / interval ? Long.MAX_VALUE : rate * interval;
+		amount = Math.min(amount, Math.min(needed, balance));
+
+		long inserted = holder.insertEmc(stack, amount, IEmcStorage.EmcAction.EXECUTE);
+
+		if (inserted > 0L) {
+			knowledge.setEmc(knowledge.getEmc().subtract(BigInteger.valueOf(inserted)));
+			EmcSync.markDirty(player);
+
+			// Only the charging slot changed, the menu's regular broadcast sends it
+			container.setChanged();
+		}
+	}
+}
@@ -21,12 +21,14 @@ package dev.latvian.mods.projectex.data;
 
 import dev.latvian.mods.projectex.Matter;
 import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.block.CompressedCollectorBlock;
 import dev.latvian.mods.projectex.block.ProjectEXBlocks;
 import net.minecraft.data.PackOutput;
 import net.minecraft.world.level.block.Block;
 import net.neoforged.neoforge.client.model.generators.BlockStateProvider;
 import net.neoforged.neoforge.client.model.generators.ConfiguredModel;
 import net.neoforged.neoforge.common.data.ExistingFileHelper;
+import net.neoforged.neoforge.registries.DeferredBlock;
 
 public class ProjectEXBlockStateProvider extends BlockStateProvider {
 	public ProjectEXBlockStateProvider(PackOutput output, ExistingFileHelper fileHelper) {
@@ -42,6 +44,15 @@ public class ProjectEXBlockStateProvider extends BlockStateProvider {
 					modLoc("block/collector/" + matter.name)));
 		}
 
+		// Compressed Collectors - same look as the collector of their tier
+		for (int compression = 1; compression <= CompressedCollectorBlock.MAX_COMPRESSION; compression++) {
+			for (Matter matter : Matter.VALUES) {
+				DeferredBlock<Block> block = ProjectEXBlocks.getCollectors(compression).get(matter);
+				simpleBlock(block.get(),
+					models().withExistingParent(block.getId().getPath(), modLoc("block/" + matter.name + "_collector")));
+			}
+		}
+
 		// Power Flowers - all tiers (custom model with collector and relay textures)
 		for (Matter matter : Matter.VALUES) {
 			simpleBlock(ProjectEXBlocks.POWER_FLOWER.get(matter).get(),
@@ -22,6 +22,7 @@ package dev.latvian.mods.projectex.data;
 import dev.latvian.mods.projectex.Matter;
 import dev.latvian.mods.projectex.ProjectEX;
 import dev.latvian.mods.projectex.Star;
+import dev.latvian.mods.projectex.block.CompressedCollectorBlock;
 import dev.latvian.mods.projectex.block.ProjectEXBlocks;
 import dev.latvian.mods.projectex.item.ProjectEXItems;
 import net.minecraft.data.PackOutput;
@@ -79,11 +80,13 @@ public class ProjectEXItemModelProvider extends ItemModelProvider {
 		singleTexture("final_star", mcLoc("item/generated"),
 			"layer0", modLoc("item/final_star"));
 
-		// Compressed Collectors - use non-compressed collector block model
-		// The FoilItem class adds enchanted glint effect automatically
-		for (Matter matter : Matter.VALUES) {
-			withExistingParent(matter.name + "_compressed_collector",
-				modLoc("block/" + matter.name + "_collector"));
+		// Compressed Collectors - use their block model
+		// The FoilBlockItem class adds enchanted glint effect automatically
+		for (int compression = 1; compression <= CompressedCollectorBlock.MAX_COMPRESSION; compression++) {
+			for (Matter matter : Matter.VALUES) {
+				String name = matter.name + "_" + CompressedCollectorBlock.getPrefix(compression) + "compressed_collector";
+				withExistingParent(name, modLoc("block/" + name));
+			}
 		}
 
 		// Utility items
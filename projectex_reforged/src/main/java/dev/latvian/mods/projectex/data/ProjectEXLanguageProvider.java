@@ -22,6 +22,7 @@ package dev.latvian.mods.projectex.data;
 import dev.latvian.mods.projectex.Matter;
 import dev.latvian.mods.projectex.ProjectEX;
 import dev.latvian.mods.projectex.Star;
+import dev.latvian.mods.projectex.block.CompressedCollectorBlock;
 import dev.latvian.mods.projectex.block.ProjectEXBlocks;
 import dev.latvian.mods.projectex.item.ProjectEXItems;
 import net.minecraft.data.PackOutput;
@@ -57,6 +58,14 @@ public class ProjectEXLanguageProvider extends LanguageProvider {
 			add(ProjectEXBlocks.COLLECTOR.get(matter).get(), matter.displayName + " Collector");
 		}
 
+		// Compressed Collectors
+		for (int compression = 1; compression <= CompressedCollectorBlock.MAX_COMPRESSION; compression++) {
+			for (Matter matter : Matter.VALUES) {
+				add(ProjectEXBlocks.getCollectors(compression).get(matter).get(),
+					CompressedCollectorBlock.getDisplayPrefix(compression) + matter.displayName + " Collector");
+			}
+		}
+
 		// Power Flowers
 		for (Matter matter : Matter.VALUES) {
 			add(ProjectEXBlocks.POWER_FLOWER.get(matter).get(), matter.displayName + " Power Flower");
@@ -120,6 +129,7 @@ public class ProjectEXLanguageProvider extends LanguageProvider {
 		// Tooltips - Link Blocks
 		add("block.projectex.personal_link.tooltip", "Transfers EMC to owner's personal EMC");
 		add("block.projectex.energy_link.tooltip", "Bidirectional EMC ↔ FE conversion");
+		add("block.projectex.energy_link.push", "Push FE %s: %s");
 		add("block.projectex.refined_link.tooltip", "Provides EMC to Refined Storage/AE2 network");
 		add("block.projectex.compressed_refined_link.tooltip", "High-capacity Refined Storage/AE2 EMC link");
 
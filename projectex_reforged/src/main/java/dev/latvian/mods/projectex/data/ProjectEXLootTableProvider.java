@@ -21,6 +21,7 @@ package dev.latvian.mods.projectex.data;
 
 import dev.latvian.mods.projectex.Matter;
 import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.block.CompressedCollectorBlock;
 import dev.latvian.mods.projectex.block.ProjectEXBlocks;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -44,6 +45,13 @@ public class ProjectEXLootTableProvider extends BlockLootSubProvider {
 			dropSelf(ProjectEXBlocks.COLLECTOR.get(matter).get());
 		}
 
+		// Compressed Collectors
+		for (int compression = 1; compression <= CompressedCollectorBlock.MAX_COMPRESSION; compression++) {
+			for (Matter matter : Matter.VALUES) {
+				dropSelf(ProjectEXBlocks.getCollectors(compression).get(matter).get());
+			}
+		}
+
 		// Matter-tiered Relays
 		for (Matter matter : Matter.VALUES) {
 			dropSelf(ProjectEXBlocks.RELAY.get(matter).get());
@@ -90,6 +98,11 @@ public class ProjectEXLootTableProvider extends BlockLootSubProvider {
 		// Matter-tiered blocks
 		for (Matter matter : Matter.VALUES) {
 			blocks.add(ProjectEXBlocks.COLLECTOR.get(matter).get());
+
+			for (int compression = 1; compression <= CompressedCollectorBlock.MAX_COMPRESSION; compression++) {
+				blocks.add(ProjectEXBlocks.getCollectors(compression).get(matter).get());
+			}
+
 			blocks.add(ProjectEXBlocks.RELAY.get(matter).get());
 			blocks.add(ProjectEXBlocks.POWER_FLOWER.get(matter).get());
 			blocks.add(ProjectEXBlocks.ENERGY_LINK.get(matter).get());
@@ -22,6 +22,7 @@ package dev.latvian.mods.projectex.data;
 import dev.latvian.mods.projectex.Matter;
 import dev.latvian.mods.projectex.ProjectEX;
 import dev.latvian.mods.projectex.Star;
+import dev.latvian.mods.projectex.block.CompressedCollectorBlock;
 import dev.latvian.mods.projectex.block.ProjectEXBlocks;
 import dev.latvian.mods.projectex.item.ProjectEXItems;
 import moze_intel.projecte.gameObjs.registries.PEBlocks;
@@ -169,6 +170,30 @@ public class ProjectEXRecipeProvider extends RecipeProvider {
 				.unlockedBy("has_collector", has(collector))
 				.save(output, ProjectEX.MOD_ID + ":compressed_collector/" + matter.name);
 
+			// Higher compression levels (9 of the level below), and back to 9 of the level below
+			for (int compression = 1; compression <= CompressedCollectorBlock.MAX_COMPRESSION; compression++) {
+				Item lower = ProjectEXBlocks.getCollectors(compression - 1).get(matter).get().asItem();
+				Item compressed = ProjectEXBlocks.getCollectors(compression).get(matter).get().asItem();
+				String prefix = CompressedCollectorBlock.getPrefix(compression);
+
+				if (compression > 1) {
+					ShapedRecipeBuilder.shaped(RecipeCategory.MISC, compressed)
+						.pattern("CCC")
+						.pattern("CCC")
+						.pattern("CCC")
+						.define('C', lower)
+						.group("projectex:compressed_collector")
+						.unlockedBy("has_compressed_collector", has(lower))
+						.save(output, ProjectEX.MOD_ID + ":" + prefix + "compressed_collector/" + matter.name);
+				}
+
+				ShapelessRecipeBuilder.shapeless(RecipeCategory.MISC, lower, 9)
+					.requires(compressed)
+					.group("projectex:decompress_collector")
+					.unlockedBy("has_compressed_collector", has(compressed))
+					.save(output, ProjectEX.MOD_ID + ":" + prefix + "compressed_collector/" + matter.name + "_decompress");
+			}
+
 			// Power Flower (2 compressed collectors + energy link + 6 relays: CLC/RRR/RRR)
 			ShapedRecipeBuilder.shaped(RecipeCategory.MISC, powerFlower)
 				.pattern("CLC")
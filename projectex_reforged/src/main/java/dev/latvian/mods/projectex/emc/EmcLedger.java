@@ -0,0 +1,396 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.emc;
+
+import dev.latvian.mods.projectex.EmcAccumulator;
+import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.generator.GeneratorScheduler;
+import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-wide EMC ledger that every Link block deposits into.
+ *
+ * Links don't keep balances of their own. insertEmc() adds straight to the
+ * owner's account here, which is a lock-free counter so storage mods may
+ * deposit from any thread. Once per cycle each account of an online owner is
+ * flushed with a single setEmc() and a single syncEmc(), however many links
+ * the owner has.
+ *
+ * Accounts of offline owners keep their balance, which is saved with the
+ * overworld in data/projectex_emc_ledger.dat, merged per owner, instead of in
+ * the block entities. Power Flowers settle into the same accounts. The whole
+ * balance is applied in one transaction when the owner logs in.
+ */
+@EventBusSubscriber(modid = ProjectEX.MOD_ID)
+public class EmcLedger extends SavedData {
+	private static final String DATA_NAME = "projectex_emc_ledger";
+	private static final SavedData.Factory<EmcLedger> FACTORY = new SavedData.Factory<>(EmcLedger::new, EmcLedger::load);
+
+	private static final Map<UUID, Account> ACCOUNTS = new ConcurrentHashMap<>();
+
+	private static int tick = 0;
+
+	private static class Account {
+		private final AtomicLong pending = new AtomicLong();
+
+		// Anything that doesn't fit in pending, guarded by the account
+		private final EmcAccumulator overflow = new EmcAccumulator();
+		private volatile boolean hasOverflow = false;
+
+		// Held by Energy Link prefetch windows. Still saved as part of the balance,
+		// so a window that's lost with the server comes back on the next start.
+		private final AtomicLong reserved = new AtomicLong();
+
+		private void deposit(long emc) {
+			while (true) {
+				long current = pending.get();
+				long next = current + emc;
+
+				if (next < 0L) {
+					// Would overflow, move everything to the overflow accumulator
+					if (pending.compareAndSet(current, 0L)) {
+						synchronized (this) {
+							overflow.add(current);
+							overflow.add(emc);
+							hasOverflow = true;
+						}
+
+						return;
+					}
+				} else if (pending.compareAndSet(current, next)) {
+					return;
+				}
+			}
+		}
+
+		private synchronized void deposit(EmcAccumulator emc) {
+			overflow.add(emc);
+			hasOverflow = true;
+		}
+
+		private long withdraw(long max) {
+			while (true) {
+				long current = pending.get();
+				long taken = Math.min(current, max);
+
+				if (taken <= 0L) {
+					break;
+				} else if (pending.compareAndSet(current, current - taken)) {
+					return taken;
+				}
+			}
+
+			if (hasOverflow) {
+				synchronized (this) {
+					long taken = Math.min(overflow.longValueSaturated(), max);
+
+					if (taken > 0L) {
+						overflow.subtract(taken);
+						hasOverflow = overflow.signum() > 0;
+						return taken;
+					}
+				}
+			}
+
+			return 0L;
+		}
+
+		private long get() {
+			if (hasOverflow) {
+				synchronized (this) {
+					long spilled = overflow.longValueSaturated();
+					long current = pending.get();
+					return spilled > Long.MAX_VALUE - current ? Long.MAX_VALUE : spilled + current;
+				}
+			}
+
+			return pending.get();
+		}
+
+		private boolean isEmpty() {
+			return pending.get() == 0L && !hasOverflow;
+		}
+
+		private boolean isEmptyIncludingReserved() {
+			return isEmpty() && reserved.get() == 0L;
+		}
+
+		/**
+		 * Take the whole balance into an accumulator
+		 */
+		private void takeAll(EmcAccumulator into) {
+			into.add(pending.getAndSet(0L));
+
+			if (hasOverflow) {
+				synchronized (this) {
+					into.add(overflow);
+					overflow.clear();
+					hasOverflow = false;
+				}
+			}
+		}
+	}
+
+	// Scratch amount for a flush, only turned into a BigInteger for setEmc()
+	private static final EmcAccumulator FLUSH = new EmcAccumulator();
+
+	private static EmcLedger load(CompoundTag tag, HolderLookup.Provider registries) {
+		ListTag list = tag.getList("Accounts", Tag.TAG_COMPOUND);
+
+		// Merged rather than replaced, links may already have deposited while the spawn area loaded
+		for (int i = 0; i < list.size(); i++) {
+			CompoundTag t = list.getCompound(i);
+			deposit(t.getUUID("Owner"), EmcAccumulator.parse(t.getString("EMC")));
+		}
+
+		return new EmcLedger();
+	}
+
+	@Override
+	public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+		ListTag list = new ListTag();
+		EmcAccumulator balance = new EmcAccumulator();
+
+		for (Map.Entry<UUID, Account> entry : ACCOUNTS.entrySet()) {
+			Account account = entry.getValue();
+
+			if (!account.isEmptyIncludingReserved()) {
+				balance.set(account.pending.get());
+				balance.add(account.reserved.get());
+
+				synchronized (account) {
+					balance.add(account.overflow);
+				}
+
+				CompoundTag t = new CompoundTag();
+				t.putUUID("Owner", entry.getKey());
+				t.putString("EMC", balance.toString());
+				list.add(t);
+			}
+		}
+
+		tag.put("Accounts", list);
+		return tag;
+	}
+
+	@Override
+	public boolean isDirty() {
+		// Balances change far too often to track, so save whenever anything is held
+		return super.isDirty() || ACCOUNTS.values().stream().anyMatch(account -> !account.isEmptyIncludingReserved());
+	}
+
+	private static Account getAccount(UUID owner) {
+		return ACCOUNTS.computeIfAbsent(owner, k -> new Account());
+	}
+
+	/**
+	 * Add EMC to an owner's account. Safe to call from any thread.
+	 */
+	public static void deposit(UUID owner, long emc) {
+		if (emc > 0L) {
+			getAccount(owner).deposit(emc);
+		}
+	}
+
+	public static void deposit(UUID owner, EmcAccumulator emc) {
+		if (emc.signum() > 0) {
+			getAccount(owner).deposit(emc);
+		}
+	}
+
+	/**
+	 * Take up to max EMC back out of an owner's unflushed balance
+	 *
+	 * @return EMC actually taken
+	 */
+	public static long withdraw(UUID owner, long max) {
+		Account account = ACCOUNTS.get(owner);
+		return account == null || max <= 0L ? 0L : account.withdraw(max);
+	}
+
+	/**
+	 * Unflushed balance of an owner, capped at Long.MAX_VALUE
+	 */
+	public static long getPending(UUID owner) {
+		Account account = ACCOUNTS.get(owner);
+		return account == null ? 0L : account.get();
+	}
+
+	/**
+	 * Set aside up to max EMC for an Energy Link prefetch window. Taken from the
+	 * unflushed balance first, then from the owner's knowledge if they're online.
+	 * Server thread only.
+	 *
+	 * @return EMC actually reserved
+	 */
+	public static long reserve(UUID owner, long max) {
+		if (max <= 0L) {
+			return 0L;
+		}
+
+		long taken = withdraw(owner, max);
+
+		if (taken < max) {
+			OwnerCache.Handle handle = OwnerCache.get(owner);
+
+			if (handle != null) {
+				IKnowledgeProvider knowledge = handle.knowledge();
+				long fromKnowledge = Math.min(max - taken, KnowledgeView.getBalance(knowledge));
+
+				if (fromKnowledge > 0L) {
+					knowledge.setEmc(knowledge.getEmc().subtract(BigInteger.valueOf(fromKnowledge)));
+					EmcSync.markDirty(handle.player());
+					taken += fromKnowledge;
+				}
+			}
+		}
+
+		if (taken > 0L) {
+			getAccount(owner).reserved.addAndGet(taken);
+		}
+
+		return taken;
+	}
+
+	/**
+	 * Mark reserved EMC as spent
+	 */
+	public static void consumeReserved(UUID owner, long emc) {
+		Account account = ACCOUNTS.get(owner);
+
+		if (account != null && emc > 0L) {
+			account.reserved.addAndGet(-emc);
+		}
+	}
+
+	/**
+	 * Undo {@link #consumeReserved} for EMC that turned out not to be spent
+	 */
+	public static void restoreReserved(UUID owner, long emc) {
+		if (emc > 0L) {
+			getAccount(owner).reserved.addAndGet(emc);
+		}
+	}
+
+	/**
+	 * Hand unspent reserved EMC back to the owner's balance
+	 */
+	public static void release(UUID owner, long emc) {
+		if (emc > 0L) {
+			Account account = getAccount(owner);
+			account.reserved.addAndGet(-emc);
+			account.deposit(emc);
+		}
+	}
+
+	/**
+	 * Hand the balance of an online owner over to their knowledge
+	 */
+	public static void flush(ServerPlayer player) {
+		OwnerCache.Handle handle = OwnerCache.get(player.getUUID());
+
+		if (handle != null) {
+			flush(handle);
+		}
+	}
+
+	private static void flush(OwnerCache.Handle handle) {
+		Account account = ACCOUNTS.get(handle.player().getUUID());
+
+		if (account == null || account.isEmpty()) {
+			return;
+		}
+
+		FLUSH.clear();
+		account.takeAll(FLUSH);
+
+		if (!FLUSH.isZero()) {
+			IKnowledgeProvider provider = handle.knowledge();
+			provider.setEmc(provider.getEmc().add(FLUSH.toBigInteger()));
+			EmcSync.markDirty(handle.player());
+		}
+	}
+
+	private static void flushAll() {
+		for (Map.Entry<UUID, Account> entry : ACCOUNTS.entrySet()) {
+			if (!entry.getValue().isEmpty()) {
+				OwnerCache.Handle handle = OwnerCache.get(entry.getKey());
+
+				if (handle != null) {
+					flush(handle);
+				}
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public static void onServerStarted(ServerStartedEvent event) {
+		event.getServer().overworld().getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+	}
+
+	@SubscribeEvent
+	public static void onServerTick(ServerTickEvent.Post event) {
+		if (++tick >= GeneratorScheduler.CYCLE_TICKS) {
+			tick = 0;
+			flushAll();
+		}
+	}
+
+	// Low priority so output settled by other login/logout handlers is included
+	@SubscribeEvent(priority = EventPriority.LOW)
+	public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+		if (event.getEntity() instanceof ServerPlayer player) {
+			flush(player);
+		}
+	}
+
+	@SubscribeEvent(priority = EventPriority.LOW)
+	public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+		if (event.getEntity() instanceof ServerPlayer player) {
+			flush(player);
+		}
+	}
+
+	@SubscribeEvent
+	public static void onServerStopped(ServerStoppedEvent event) {
+		ACCOUNTS.clear();
+		tick = 0;
+	}
+}
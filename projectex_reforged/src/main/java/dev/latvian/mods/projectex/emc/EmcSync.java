@@ -0,0 +1,180 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.emc;
+
+import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.ProjectEXConfig;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
+import moze_intel.projecte.gameObjs.container.TransmutationContainer;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerContainerEvent;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * Coordinates EMC sync packets to players.
+ *
+ * Anything that changes a player's EMC calls {@link #markDirty} instead of
+ * syncEmc(). Dirty players are synced at the end of the server tick, and at
+ * most once per {@code emcSyncIntervalTicks}, so a bulk craft or a flush from
+ * hundreds of links costs a single packet.
+ *
+ * Opening or closing a transmutation GUI syncs right away, since that's where
+ * the number is shown.
+ */
+@EventBusSubscriber(modid = ProjectEX.MOD_ID)
+public class EmcSync {
+	// Players with an EMC change that hasn't been sent yet
+	private static final ObjectLinkedOpenHashSet<UUID> DIRTY = new ObjectLinkedOpenHashSet<>();
+
+	// Server tick of the last sync sent to each player
+	private static final Object2IntOpenHashMap<UUID> LAST_SYNC = new Object2IntOpenHashMap<>();
+
+	private static long requested = 0L;
+	private static long suppressed = 0L;
+	private static long sent = 0L;
+
+	/**
+	 * Schedule an EMC sync for a player. Must be called on the server thread.
+	 */
+	public static void markDirty(ServerPlayer player) {
+		requested++;
+
+		if (!DIRTY.add(player.getUUID())) {
+			suppressed++;
+		}
+	}
+
+	/**
+	 * Sync a player's EMC now, whether or not it changed
+	 */
+	public static void sync(ServerPlayer player) {
+		IKnowledgeProvider provider = OwnerCache.getKnowledge(player.getUUID());
+
+		if (provider != null) {
+			provider.syncEmc(player);
+			sent++;
+		}
+
+		DIRTY.remove(player.getUUID());
+		LAST_SYNC.put(player.getUUID(), player.server.getTickCount());
+	}
+
+	/**
+	 * Number of syncs that were asked for
+	 */
+	public static long getRequested() {
+		return requested;
+	}
+
+	/**
+	 * Number of syncs that were actually sent
+	 */
+	public static long getSent() {
+		return sent;
+	}
+
+	/**
+	 * Number of syncs that were merged into one already pending
+	 */
+	public static long getSuppressed() {
+		return suppressed;
+	}
+
+	public static int getPendingCount() {
+		return DIRTY.size();
+	}
+
+	private static void tick(MinecraftServer server) {
+		if (DIRTY.isEmpty()) {
+			return;
+		}
+
+		int now = server.getTickCount();
+		int interval = ProjectEXConfig.EMC_SYNC_INTERVAL_TICKS.get();
+		Iterator<UUID> iterator = DIRTY.iterator();
+
+		while (iterator.hasNext()) {
+			UUID id = iterator.next();
+
+			if (now - LAST_SYNC.getOrDefault(id, Integer.MIN_VALUE / 2) < interval) {
+				continue;
+			}
+
+			iterator.remove();
+			OwnerCache.Handle handle = OwnerCache.get(id);
+
+			if (handle != null) {
+				handle.knowledge().syncEmc(handle.player());
+				sent++;
+				LAST_SYNC.put(id, now);
+			}
+		}
+	}
+
+	private static boolean showsEmc(Player player, Object menu) {
+		return player instanceof ServerPlayer && menu instanceof TransmutationContainer;
+	}
+
+	@SubscribeEvent
+	public static void onServerTick(ServerTickEvent.Post event) {
+		tick(event.getServer());
+	}
+
+	@SubscribeEvent
+	public static void onContainerOpen(PlayerContainerEvent.Open event) {
+		if (showsEmc(event.getEntity(), event.getContainer())) {
+			sync((ServerPlayer) event.getEntity());
+		}
+	}
+
+	@SubscribeEvent
+	public static void onContainerClose(PlayerContainerEvent.Close event) {
+		if (showsEmc(event.getEntity(), event.getContainer()) && DIRTY.contains(event.getEntity().getUUID())) {
+			sync((ServerPlayer) event.getEntity());
+		}
+	}
+
+	@SubscribeEvent
+	public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+		DIRTY.remove(event.getEntity().getUUID());
+		LAST_SYNC.removeInt(event.getEntity().getUUID());
+	}
+
+	@SubscribeEvent
+	public static void onServerStopped(ServerStoppedEvent event) {
+		DIRTY.clear();
+		LAST_SYNC.clear();
+		requested = 0L;
+		suppressed = 0L;
+		sent = 0L;
+	}
+}
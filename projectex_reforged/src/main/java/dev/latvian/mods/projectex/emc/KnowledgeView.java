@@ -0,0 +1,227 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.emc;
+
+import dev.latvian.mods.projectex.ProjectEX;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import moze_intel.projecte.api.ItemInfo;
+import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
+import moze_intel.projecte.api.event.EMCRemapEvent;
+import moze_intel.projecte.api.event.PlayerKnowledgeChangeEvent;
+import moze_intel.projecte.api.proxy.IEMCProxy;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cached list of the items an owner knows, with their EMC values and a key
+ * for whatever storage system shows them.
+ *
+ * Building this from the knowledge set is expensive for players who know tens
+ * of thousands of items, so it's only done once. After that the view is
+ * patched by diffing, and only when ProjectE reports a knowledge change for
+ * the owner or EMC values were remapped. Scans between changes reuse the same
+ * entries, and item counts are worked out from the current balance only when
+ * they're read.
+ *
+ * @param <K> Resource key type of the storage system
+ */
+@EventBusSubscriber(modid = ProjectEX.MOD_ID)
+public class KnowledgeView<K> {
+	// Never reset, so a view can't mistake a new server's revision for the one it saw
+	private static long lastRevision = 0L;
+
+	// Bumped for everyone on EMC remaps and server stop
+	private static long globalRevision = 0L;
+	private static final Object2LongOpenHashMap<UUID> REVISIONS = new Object2LongOpenHashMap<>();
+
+	public static final class Entry<K> {
+		public final ItemInfo info;
+		public final K key;
+		public final long emc;
+
+		private Entry(ItemInfo info, K key, long emc) {
+			this.info = info;
+			this.key = key;
+			this.emc = emc;
+		}
+
+		/**
+		 * How many of this item a balance pays for
+		 */
+		public long getAmount(long balance) {
+			return balance / emc;
+		}
+	}
+
+	/**
+	 * Told about each entry that {@link #update} adds or removes
+	 */
+	public interface Listener<K> {
+		void added(Entry<K> entry);
+
+		void removed(Entry<K> entry);
+	}
+
+	private final UUID owner;
+	private final Function<ItemInfo, K> keyFactory;
+	private final List<Entry<K>> entries = new ArrayList<>();
+	private final Map<ItemInfo, Entry<K>> byInfo = new HashMap<>();
+	private final Map<K, Entry<K>> byKey = new HashMap<>();
+	private long revision = -1L;
+
+	public KnowledgeView(UUID owner, Function<ItemInfo, K> keyFactory) {
+		this.owner = owner;
+		this.keyFactory = keyFactory;
+	}
+
+	public UUID getOwner() {
+		return owner;
+	}
+
+	private static long getRevision(UUID owner) {
+		return Math.max(globalRevision, REVISIONS.getLong(owner));
+	}
+
+	/**
+	 * Bring the view up to date with the owner's knowledge, if it changed since the last call
+	 *
+	 * @return true if any entry was added or removed
+	 */
+	public boolean update(IKnowledgeProvider knowledge) {
+		return update(knowledge, null);
+	}
+
+	/**
+	 * Same as {@link #update(IKnowledgeProvider)}, reporting every change to a listener
+	 */
+	public boolean update(IKnowledgeProvider knowledge, @Nullable Listener<K> listener) {
+		long current = getRevision(owner);
+
+		if (revision == current) {
+			return false;
+		}
+
+		boolean remapped = revision < globalRevision;
+		revision = current;
+
+		if (remapped) {
+			// Values may all have changed
+			if (listener != null) {
+				entries.forEach(listener::removed);
+			}
+
+			entries.clear();
+			byInfo.clear();
+			byKey.clear();
+		}
+
+		Set<ItemInfo> known = knowledge.getKnowledge();
+		boolean changed = remapped;
+
+		// Removed items
+		if (!entries.isEmpty()) {
+			changed |= entries.removeIf(entry -> {
+				if (!known.contains(entry.info)) {
+					byInfo.remove(entry.info);
+					byKey.remove(entry.key);
+
+					if (listener != null) {
+						listener.removed(entry);
+					}
+
+					return true;
+				}
+
+				return false;
+			});
+		}
+
+		// Added items
+		for (ItemInfo info : known) {
+			if (!byInfo.containsKey(info)) {
+				long emc = IEMCProxy.INSTANCE.getValue(info);
+
+				if (emc > 0L) {
+					Entry<K> entry = new Entry<>(info, keyFactory.apply(info), emc);
+					entries.add(entry);
+					byInfo.put(info, entry);
+					byKey.put(entry.key, entry);
+					changed = true;
+
+					if (listener != null) {
+						listener.added(entry);
+					}
+				}
+			}
+		}
+
+		return changed;
+	}
+
+	public List<Entry<K>> getEntries() {
+		return entries;
+	}
+
+	@Nullable
+	public Entry<K> get(K key) {
+		return byKey.get(key);
+	}
+
+	/**
+	 * Balance to count items with, capped at Long.MAX_VALUE
+	 */
+	public static long getBalance(IKnowledgeProvider knowledge) {
+		BigInteger emc = knowledge.getEmc();
+		if (emc.signum() <= 0) {
+			return 0L;
+		}
+
+		return emc.bitLength() < Long.SIZE ? emc.longValue() : Long.MAX_VALUE;
+	}
+
+	@SubscribeEvent
+	public static void onKnowledgeChange(PlayerKnowledgeChangeEvent event) {
+		REVISIONS.put(event.getPlayerUUID(), ++lastRevision);
+	}
+
+	@SubscribeEvent
+	public static void onRemap(EMCRemapEvent event) {
+		globalRevision = ++lastRevision;
+		REVISIONS.clear();
+	}
+
+	@SubscribeEvent
+	public static void onServerStopped(ServerStoppedEvent event) {
+		globalRevision = ++lastRevision;
+		REVISIONS.clear();
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.emc;
+
+import dev.latvian.mods.projectex.block.entity.LinkBaseBlockEntity;
+import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
+
+import java.math.BigInteger;
+
+/**
+ * Pays for items that a storage network takes out of a Refined Link.
+ *
+ * However many items a call asks for, the cost is worked out as one
+ * {@code value × count} and debited once: first from the owner's unflushed
+ * {@link EmcLedger} balance, the rest from their knowledge.
+ */
+public class LinkExtraction {
+	/**
+	 * @param emc     EMC value of one item
+	 * @param execute false to only simulate
+	 * @return Number of items paid for
+	 */
+	public static long extract(LinkBaseBlockEntity link, OwnerCache.Handle handle, long emc, long requested, boolean execute) {
+		if (requested <= 0L || emc <= 0L) {
+			return 0L;
+		}
+
+		IKnowledgeProvider knowledge = handle.knowledge();
+		long pending = EmcLedger.getPending(link.owner);
+		long balance = KnowledgeView.getBalance(knowledge);
+		long available = balance > Long.MAX_VALUE - pending ? Long.MAX_VALUE : balance + pending;
+
+		long count = Math.min(link.getExtractLimit(requested, emc), available / emc);
+
+		if (count <= 0L) {
+			return 0L;
+		}
+
+		if (execute) {
+			// Can't overflow, count is at most available / emc
+			long cost = Math.multiplyExact(emc, count);
+			long fromKnowledge = cost - EmcLedger.withdraw(link.owner, cost);
+
+			if (fromKnowledge > 0L) {
+				knowledge.setEmc(knowledge.getEmc().subtract(BigInteger.valueOf(fromKnowledge)));
+				EmcSync.markDirty(handle.player());
+			}
+
+			link.onExtracted(cost);
+		}
+
+		return count;
+	}
+}
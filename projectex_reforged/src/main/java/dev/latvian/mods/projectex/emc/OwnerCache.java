@@ -0,0 +1,110 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.emc;
+
+import dev.latvian.mods.projectex.ProjectEX;
+import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
+import moze_intel.projecte.api.capabilities.PECapabilities;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Online owners by UUID, with their knowledge already resolved.
+ *
+ * Generators and the ledger look their owner up here instead of going
+ * through the player list and the capability system every time. Entries are
+ * kept up to date on login, logout, respawn (which creates a new player
+ * entity) and dimension change. Server thread only.
+ */
+@EventBusSubscriber(modid = ProjectEX.MOD_ID)
+public class OwnerCache {
+	public record Handle(ServerPlayer player, IKnowledgeProvider knowledge) {
+	}
+
+	private static final Map<UUID, Handle> HANDLES = new HashMap<>();
+
+	/**
+	 * Handle of an online owner, or null if they're offline
+	 */
+	@Nullable
+	public static Handle get(UUID owner) {
+		return HANDLES.get(owner);
+	}
+
+	public static boolean isOnline(UUID owner) {
+		return HANDLES.containsKey(owner);
+	}
+
+	@Nullable
+	public static IKnowledgeProvider getKnowledge(UUID owner) {
+		Handle handle = HANDLES.get(owner);
+		return handle == null ? null : handle.knowledge();
+	}
+
+	private static void update(Player player) {
+		if (player instanceof ServerPlayer serverPlayer) {
+			IKnowledgeProvider knowledge = serverPlayer.getCapability(PECapabilities.KNOWLEDGE_CAPABILITY);
+
+			if (knowledge != null) {
+				HANDLES.put(serverPlayer.getUUID(), new Handle(serverPlayer, knowledge));
+			} else {
+				HANDLES.remove(serverPlayer.getUUID());
+			}
+		}
+	}
+
+	// High priority so other login handlers can already find the player here
+	@SubscribeEvent(priority = EventPriority.HIGH)
+	public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+		update(event.getEntity());
+	}
+
+	// Lowest priority so other logout handlers can still find the player here
+	@SubscribeEvent(priority = EventPriority.LOWEST)
+	public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+		HANDLES.remove(event.getEntity().getUUID());
+	}
+
+	@SubscribeEvent(priority = EventPriority.HIGH)
+	public static void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+		update(event.getEntity());
+	}
+
+	@SubscribeEvent(priority = EventPriority.HIGH)
+	public static void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+		update(event.getEntity());
+	}
+
+	@SubscribeEvent
+	public static void onServerStopped(ServerStoppedEvent event) {
+		HANDLES.clear();
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex.generator;
+
+import dev.latvian.mods.projectex.ProjectEX;
+import moze_intel.projecte.api.capabilities.PECapabilities;
+import moze_intel.projecte.api.capabilities.block_entity.IEmcStorage;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.neoforged.neoforge.capabilities.BlockCapabilityCache;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Cached EMC storage neighbors of a generator block entity.
+ *
+ * Holds one {@link BlockCapabilityCache} per face, so steady-state lookups don't
+ * touch the level at all. NeoForge invalidates the caches when a neighbor is
+ * placed, removed or changes its capabilities. Accepting neighbors are
+ * collected into a reusable array, so a distribution pass doesn't allocate.
+ */
+public class EmcNeighbors {
+	private final BlockEntity owner;
+	private final Runnable listener;
+
+	@Nullable
+	private BlockCapabilityCache<IEmcStorage, @Nullable Direction>[] caches;
+
+	private final IEmcStorage[] accepting = new IEmcStorage[6];
+	private int acceptingCount = 0;
+
+	/**
+	 * @param listener Called when any neighbor is placed, removed or changes its capabilities
+	 */
+	public EmcNeighbors(BlockEntity owner, Runnable listener) {
+		this.owner = owner;
+		this.listener = listener;
+	}
+
+	@SuppressWarnings("unchecked")
+	private BlockCapabilityCache<IEmcStorage, @Nullable Direction>[] getCaches(ServerLevel level) {
+		if (caches == null) {
+			caches = new BlockCapabilityCache[ProjectEX.DIRECTIONS.length];
+
+			for (Direction direction : ProjectEX.DIRECTIONS) {
+				// Query the neighbor with the direction FROM the neighbor TO us
+				caches[direction.ordinal()] = BlockCapabilityCache.create(PECapabilities.EMC_STORAGE_CAPABILITY,
+						level,
+						owner.getBlockPos().relative(direction),
+						direction.getOpposite(),
+						() -> !owner.isRemoved(),
+						listener);
+			}
+		}
+
+		return caches;
+	}
+
+	/**
+	 * Collect neighbors that currently accept EMC
+	 *
+	 * @param skipRelays If true, relays are not counted as accepting neighbors
+	 * @return Number of accepting neighbors, available through {@link #get(int)}
+	 */
+	public int findAccepting(ServerLevel level, boolean skipRelays) {
+		BlockCapabilityCache<IEmcStorage, @Nullable Direction>[] c = getCaches(level);
+		acceptingCount = 0;
+
+		for (BlockCapabilityCache<IEmcStorage, @Nullable Direction> cache : c) {
+			IEmcStorage storage = cache.getCapability();
+
+			if (storage != null && !(skipRelays && storage.isRelay()) && storage.insertEmc(1L, IEmcStorage.EmcAction.SIMULATE) > 0L) {
+				accepting[acceptingCount++] = storage;
+			}
+		}
+
+		// Don't keep neighbors alive through the scratch array
+		for (int i = acceptingCount; i < accepting.length; i++) {
+			accepting[i] = null;
+		}
+
+		return acceptingCount;
+	}
+
+	/**
+	 * Number of accepting neighbors found by the last {@link #findAccepting} call
+	 */
+	public int getAcceptingCount() {
+		return acceptingCount;
+	}
+
+	public IEmcStorage get(int index) {
+		return accepting[index];
+	}
+}
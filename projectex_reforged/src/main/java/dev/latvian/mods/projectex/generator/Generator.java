@@ -0,0 +1,61 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex.generator;
+
+import net.minecraft.core.BlockPos;
+
+/**
+ * A block entity that produces or moves EMC once per generation cycle.
+ *
+ * Generators don't tick on their own. They join the {@link GeneratorScheduler}
+ * of their level when loaded and leave it when removed.
+ *
+ * A generator that has nowhere to put its EMC goes dormant: it isn't run
+ * until {@link GeneratorScheduler#wake} is called (usually from a neighbor
+ * change) or a periodic {@link #canWake()} probe succeeds.
+ */
+public interface Generator {
+	/**
+	 * Position used to pick the generator's phase within a cycle
+	 */
+	BlockPos getBlockPos();
+
+	/**
+	 * Run the given number of generation cycles (20 ticks worth of work each).
+	 * More than one cycle is passed when the scheduler had to postpone this
+	 * generator because the per-tick budget was used up.
+	 *
+	 * @return false if nothing could be distributed, which makes the generator dormant
+	 */
+	boolean generate(int cycles);
+
+	/**
+	 * Cheap check used to probe dormant generators, true if a neighbor would accept EMC now
+	 */
+	boolean canWake();
+
+	/**
+	 * Called when leaving the dormant state, before the generator is scheduled again
+	 *
+	 * @param cycles Whole cycles that passed while dormant
+	 */
+	default void wake(int cycles) {
+	}
+}
@@ -0,0 +1,286 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex.generator;
+
+import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.ProjectEXConfig;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Per-level scheduler that runs every loaded {@link Generator} once per cycle,
+ * instead of giving each block entity its own ticker.
+ *
+ * Block entities join in onLoad() and leave in setRemoved().
+ *
+ * When staggering is enabled, each generator gets a phase (0-19) derived from a
+ * hash of its position, so a farm's work is spread over the whole second rather
+ * than landing on one tick. Due generators go into a queue that is drained up to
+ * the per-tick budget; anything left over runs on the next tick with its missed
+ * cycles added up.
+ *
+ * Generators that fail to distribute anything go dormant and aren't run at all
+ * until they are woken by a neighbor change or a periodic probe finds a sink.
+ */
+@EventBusSubscriber(modid = ProjectEX.MOD_ID)
+public class GeneratorScheduler {
+	// Ticks between generation cycles (1 second)
+	public static final int CYCLE_TICKS = 20;
+
+	private static final Map<ServerLevel, GeneratorScheduler> SCHEDULERS = new IdentityHashMap<>();
+
+	// One bucket per phase. Without staggering everything lives in bucket 0.
+	@SuppressWarnings("unchecked")
+	private final ReferenceLinkedOpenHashSet<Generator>[] phases = new ReferenceLinkedOpenHashSet[CYCLE_TICKS];
+
+	// Dormant generators per phase, with the game time they went dormant at
+	@SuppressWarnings("unchecked")
+	private final Reference2LongOpenHashMap<Generator>[] dormantPhases = new Reference2LongOpenHashMap[CYCLE_TICKS];
+
+	// Generators waiting to run, and how many cycles each one is owed
+	private final ArrayDeque<Generator> queue = new ArrayDeque<>();
+	private final Reference2IntOpenHashMap<Generator> owedCycles = new Reference2IntOpenHashMap<>();
+
+	// Read once per level so a config reload can't move generators between buckets
+	private final boolean staggered;
+
+	private final ServerLevel level;
+	private final RelayNetworks relayNetworks;
+	private final ArrayList<Generator> waking = new ArrayList<>();
+
+	private int tick = 0;
+	private int cycle = 0;
+	private int size = 0;
+	private int dormant = 0;
+
+	private GeneratorScheduler(ServerLevel level) {
+		for (int i = 0; i < CYCLE_TICKS; i++) {
+			phases[i] = new ReferenceLinkedOpenHashSet<>();
+			dormantPhases[i] = new Reference2LongOpenHashMap<>();
+		}
+
+		this.level = level;
+		staggered = ProjectEXConfig.STAGGER_GENERATORS.get();
+		relayNetworks = new RelayNetworks(level, this);
+	}
+
+	/**
+	 * Get (or create) the scheduler for a server level
+	 */
+	public static GeneratorScheduler get(ServerLevel level) {
+		return SCHEDULERS.computeIfAbsent(level, GeneratorScheduler::new);
+	}
+
+	/**
+	 * Scheduler of a level if it has one, without creating it
+	 */
+	@Nullable
+	public static GeneratorScheduler getIfPresent(ServerLevel level) {
+		return SCHEDULERS.get(level);
+	}
+
+	/**
+	 * Phase of a position within the 20-tick cycle
+	 */
+	public static int getPhase(BlockPos pos) {
+		return (int) Math.floorMod(Mth.murmurHash3Mixer(pos.asLong()), (long) CYCLE_TICKS);
+	}
+
+	private int phase(Generator generator) {
+		return staggered ? getPhase(generator.getBlockPos()) : 0;
+	}
+
+	private ReferenceLinkedOpenHashSet<Generator> bucket(Generator generator) {
+		return phases[phase(generator)];
+	}
+
+	public void add(Generator generator) {
+		if (bucket(generator).add(generator)) {
+			size++;
+		}
+	}
+
+	public void remove(Generator generator) {
+		if (bucket(generator).remove(generator)) {
+			size--;
+		} else if (dormantPhases[phase(generator)].containsKey(generator)) {
+			dormantPhases[phase(generator)].removeLong(generator);
+			dormant--;
+			size--;
+		}
+
+		// Any queue entry left behind is skipped because it's no longer owed anything
+		owedCycles.removeInt(generator);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getDormantCount() {
+		return dormant;
+	}
+
+	/**
+	 * Stop running a generator until it's woken up
+	 */
+	private void sleep(Generator generator) {
+		if (bucket(generator).remove(generator)) {
+			owedCycles.removeInt(generator);
+			dormantPhases[phase(generator)].put(generator, level.getGameTime());
+			dormant++;
+		}
+	}
+
+	/**
+	 * Schedule a dormant generator again. Does nothing if it isn't dormant.
+	 */
+	public void wake(Generator generator) {
+		Reference2LongOpenHashMap<Generator> bucket = dormantPhases[phase(generator)];
+
+		if (bucket.containsKey(generator)) {
+			long since = bucket.removeLong(generator);
+			dormant--;
+			generator.wake((int) Math.min((level.getGameTime() - since) / CYCLE_TICKS, Integer.MAX_VALUE));
+			bucket(generator).add(generator);
+		}
+	}
+
+	/**
+	 * Game time a generator went dormant at, or -1 if it isn't dormant
+	 */
+	public long getDormantSince(Generator generator) {
+		Reference2LongOpenHashMap<Generator> bucket = dormantPhases[phase(generator)];
+		return bucket.containsKey(generator) ? bucket.getLong(generator) : -1L;
+	}
+
+	public void forEach(Consumer<Generator> consumer) {
+		for (int i = 0; i < CYCLE_TICKS; i++) {
+			phases[i].forEach(consumer);
+			dormantPhases[i].keySet().forEach(consumer);
+		}
+	}
+
+	public RelayNetworks getRelayNetworks() {
+		return relayNetworks;
+	}
+
+	/**
+	 * Number of generators that are due but still waiting for budget
+	 */
+	public int getBacklog() {
+		return owedCycles.size();
+	}
+
+	private void tick() {
+		// Regroup relays before anything runs, so no network works on a stale layout
+		relayNetworks.rebuild();
+
+		int phase = tick;
+		tick = (tick + 1) % CYCLE_TICKS;
+
+		if (phase == 0) {
+			cycle++;
+		}
+
+		if (staggered || phase == 0) {
+			for (Generator generator : phases[phase]) {
+				if (owedCycles.addTo(generator, 1) == 0) {
+					queue.add(generator);
+				}
+			}
+
+			// Neighbors that free up space don't always cause a capability change, so check now and then
+			int probeCycles = ProjectEXConfig.DORMANT_PROBE_CYCLES.get();
+
+			if (probeCycles > 0 && cycle % probeCycles == 0 && !dormantPhases[phase].isEmpty()) {
+				for (Generator generator : dormantPhases[phase].keySet()) {
+					if (generator.canWake()) {
+						waking.add(generator);
+					}
+				}
+
+				for (Generator generator : waking) {
+					wake(generator);
+				}
+
+				waking.clear();
+			}
+		}
+
+		int budget = ProjectEXConfig.GENERATOR_BUDGET_PER_TICK.get();
+
+		if (budget <= 0) {
+			budget = Integer.MAX_VALUE;
+		}
+
+		while (budget > 0 && !queue.isEmpty()) {
+			Generator generator = queue.poll();
+			int cycles = owedCycles.removeInt(generator);
+
+			if (cycles > 0) {
+				if (!generator.generate(cycles)) {
+					sleep(generator);
+				}
+
+				budget--;
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public static void onLevelTick(LevelTickEvent.Post event) {
+		if (event.getLevel() instanceof ServerLevel level) {
+			GeneratorScheduler scheduler = SCHEDULERS.get(level);
+
+			if (scheduler != null) {
+				scheduler.tick();
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public static void onLevelUnload(LevelEvent.Unload event) {
+		if (event.getLevel() instanceof ServerLevel level) {
+			SCHEDULERS.remove(level);
+		}
+	}
+
+	@SubscribeEvent
+	public static void onServerStopped(ServerStoppedEvent event) {
+		SCHEDULERS.clear();
+	}
+}
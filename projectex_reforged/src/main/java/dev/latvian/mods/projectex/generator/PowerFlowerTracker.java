@@ -0,0 +1,354 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex.generator;
+
+import dev.latvian.mods.projectex.EmcAccumulator;
+import dev.latvian.mods.projectex.Matter;
+import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.ProjectEXConfig;
+import dev.latvian.mods.projectex.block.entity.PowerFlowerBlockEntity;
+import dev.latvian.mods.projectex.emc.EmcLedger;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Server-wide tracker that credits Power Flower output per owner.
+ *
+ * Flowers don't generate individually. Each one registers with its owner's entry,
+ * which keeps a running count per {@link Matter} tier and the combined output.
+ *
+ * Nothing happens per tick. Each owner remembers the game time it was last
+ * settled at, and the EMC owed since then is worked out from the elapsed whole
+ * cycles only when it's needed: on login and logout, before a flower joins or
+ * leaves (placement, breaking, chunk load and unload), on right-click, and on a
+ * coarse periodic flush. Leftover ticks of a partial cycle carry over, so the
+ * total is the same as crediting the output every second.
+ *
+ * Flowers in unloaded chunks stay counted through {@link VirtualGenerators}, so
+ * a remote farm keeps producing without its chunks being kept loaded.
+ *
+ * Settled output goes into the owner's {@link EmcLedger} account. Online owners
+ * get it right away; for offline owners it waits in the ledger and is handed
+ * over in one go when they log in, so flowers never hold EMC themselves.
+ */
+@EventBusSubscriber(modid = ProjectEX.MOD_ID)
+public class PowerFlowerTracker {
+	private static final Map<UUID, Owner> OWNERS = new HashMap<>();
+
+	// Scratch amount for a settlement
+	private static final EmcAccumulator PRODUCED = new EmcAccumulator();
+
+	// Unloaded flowers, counted into OWNERS the first time it's needed
+	@Nullable
+	private static VirtualGenerators virtual = null;
+
+	private static int flushTick = 0;
+
+	private static class Owner {
+		private final UUID id;
+		private final int[] flowers = new int[Matter.VALUES.length];
+		private final ReferenceLinkedOpenHashSet<PowerFlowerBlockEntity> members = new ReferenceLinkedOpenHashSet<>();
+		private int count = 0;
+		private long output = 0L;
+
+		// Game time up to which output has been credited
+		private long settledAt;
+
+		private Owner(UUID id, long now) {
+			this.id = id;
+			this.settledAt = now;
+		}
+	}
+
+	private static VirtualGenerators getVirtual(MinecraftServer server) {
+		if (virtual == null) {
+			virtual = VirtualGenerators.get(server);
+			long now = getTime(server);
+			virtual.forEachFlower(entry -> addCount(server, entry.owner(), entry.matter(), now));
+		}
+
+		return virtual;
+	}
+
+	/**
+	 * Count the flowers in unloaded chunks, if that hasn't happened yet
+	 */
+	public static void loadVirtual(MinecraftServer server) {
+		getVirtual(server);
+	}
+
+	private static Owner addCount(MinecraftServer server, UUID id, Matter matter, long now) {
+		Owner owner = OWNERS.get(id);
+
+		if (owner == null) {
+			owner = new Owner(id, now);
+			OWNERS.put(id, owner);
+		} else {
+			// Credit the old rate up to now before the count changes it
+			settle(server, owner, now);
+		}
+
+		owner.count++;
+		owner.flowers[matter.ordinal()]++;
+		owner.output = saturatedAdd(owner.output, matter.getPowerFlowerOutput());
+		return owner;
+	}
+
+	private static void removeCount(MinecraftServer server, Owner owner, Matter matter) {
+		settle(server, owner, getTime(server));
+
+		owner.count--;
+		owner.flowers[matter.ordinal()]--;
+		owner.output = recalculateOutput(owner);
+
+		if (owner.count <= 0) {
+			OWNERS.remove(owner.id);
+		}
+	}
+
+	public static void add(PowerFlowerBlockEntity flower, Matter matter) {
+		if (flower.owner.equals(Util.NIL_UUID)) {
+			return;
+		}
+
+		MinecraftServer server = getServer(flower);
+		Owner owner = OWNERS.get(flower.owner);
+
+		if (server == null || owner != null && owner.members.contains(flower)) {
+			return;
+		}
+
+		VirtualGenerators.Entry entry = getVirtual(server).remove(flower.getLevel().dimension(), flower.getBlockPos());
+
+		if (entry != null && entry.kind() == VirtualGenerators.Kind.FLOWER) {
+			Owner previous = OWNERS.get(entry.owner());
+
+			if (previous != null) {
+				if (previous == owner && entry.matter() == matter) {
+					// Already counted while unloaded, it just becomes a member again
+					owner.members.add(flower);
+					return;
+				}
+
+				removeCount(server, previous, entry.matter());
+			}
+		}
+
+		addCount(server, flower.owner, matter, getTime(server)).members.add(flower);
+	}
+
+	public static void remove(PowerFlowerBlockEntity flower, Matter matter) {
+		Owner owner = OWNERS.get(flower.owner);
+		MinecraftServer server = getServer(flower);
+
+		if (server != null && owner != null && owner.members.contains(flower)) {
+			removeCount(server, owner, matter);
+			owner.members.remove(flower);
+		}
+	}
+
+	/**
+	 * Called when the flower's chunk unloads. It stays counted, but as an
+	 * entry in {@link VirtualGenerators} rather than a loaded member.
+	 */
+	public static void unload(PowerFlowerBlockEntity flower, Matter matter) {
+		Owner owner = OWNERS.get(flower.owner);
+		MinecraftServer server = getServer(flower);
+
+		if (server != null && owner != null && owner.members.contains(flower)) {
+			settle(server, owner, getTime(server));
+			owner.members.remove(flower);
+			getVirtual(server).putFlower(flower.getLevel().dimension(), flower.getBlockPos(), owner.id, matter);
+		}
+	}
+
+	/**
+	 * Called when an unloaded flower turned out to be gone
+	 */
+	public static void removeVirtual(MinecraftServer server, UUID id, Matter matter) {
+		// Not counted yet, and the entry is already gone
+		if (virtual == null) {
+			return;
+		}
+
+		Owner owner = OWNERS.get(id);
+
+		if (owner != null) {
+			removeCount(server, owner, matter);
+		}
+	}
+
+	/**
+	 * Record every loaded flower as unloaded, used on server stop
+	 */
+	public static void saveVirtual(MinecraftServer server, VirtualGenerators data) {
+		long now = getTime(server);
+
+		for (Owner owner : OWNERS.values()) {
+			settle(server, owner, now);
+
+			for (PowerFlowerBlockEntity flower : owner.members) {
+				Matter matter = flower.getMatter();
+
+				if (matter != null) {
+					data.putFlower(flower.getLevel().dimension(), flower.getBlockPos(), owner.id, matter);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Move everything a player's flowers have produced up to now into their ledger account
+	 */
+	public static void settle(MinecraftServer server, UUID id) {
+		Owner owner = OWNERS.get(id);
+
+		if (owner != null) {
+			settle(server, owner, getTime(server));
+		}
+	}
+
+	/**
+	 * Number of flowers of a tier owned by a player, including ones in unloaded chunks
+	 */
+	public static int getFlowerCount(UUID id, Matter matter) {
+		Owner owner = OWNERS.get(id);
+		return owner == null ? 0 : owner.flowers[matter.ordinal()];
+	}
+
+	/**
+	 * Combined EMC per cycle of all flowers owned by a player
+	 */
+	public static long getOutput(UUID id) {
+		Owner owner = OWNERS.get(id);
+		return owner == null ? 0L : owner.output;
+	}
+
+	@Nullable
+	private static MinecraftServer getServer(PowerFlowerBlockEntity flower) {
+		Level level = flower.getLevel();
+		return level == null ? null : level.getServer();
+	}
+
+	// Overworld game time, which every dimension shares and which doesn't jump with /time
+	private static long getTime(MinecraftServer server) {
+		return server.overworld().getGameTime();
+	}
+
+	private static long recalculateOutput(Owner owner) {
+		long output = 0L;
+
+		for (Matter matter : Matter.VALUES) {
+			int count = owner.flowers[matter.ordinal()];
+
+			if (count > 0) {
+				output = saturatedAdd(output, saturatedMultiply(matter.getPowerFlowerOutput(), count));
+			}
+		}
+
+		return output;
+	}
+
+	/**
+	 * Credit the whole cycles elapsed since the last settlement to the owner's ledger account.
+	 * Only deposits, so it's also safe while a flower's chunk is unloading.
+	 */
+	private static void settle(MinecraftServer server, Owner owner, long now) {
+		long cycles = (now - owner.settledAt) / GeneratorScheduler.CYCLE_TICKS;
+
+		if (cycles <= 0L) {
+			return;
+		}
+
+		// Keep the partial cycle for next time
+		owner.settledAt += cycles * GeneratorScheduler.CYCLE_TICKS;
+
+		if (owner.output <= 0L) {
+			return;
+		}
+
+		PRODUCED.clear();
+		PRODUCED.addProduct(owner.output, cycles);
+		EmcLedger.deposit(owner.id, PRODUCED);
+	}
+
+	private static long saturatedAdd(long a, long b) {
+		long r = a + b;
+		return ((a ^ r) & (b ^ r)) < 0L ? Long.MAX_VALUE : r;
+	}
+
+	private static long saturatedMultiply(long a, int b) {
+		long hi = Math.multiplyHigh(a, b);
+		long lo = a * b;
+		return (hi == 0L && lo >= 0L) ? lo : Long.MAX_VALUE;
+	}
+
+	@SubscribeEvent
+	public static void onServerTick(ServerTickEvent.Post event) {
+		if (++flushTick >= ProjectEXConfig.POWER_FLOWER_SETTLE_TICKS.get()) {
+			flushTick = 0;
+
+			if (!OWNERS.isEmpty()) {
+				MinecraftServer server = event.getServer();
+				long now = getTime(server);
+
+				for (Owner owner : OWNERS.values()) {
+					settle(server, owner, now);
+				}
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+		// The ledger hands this over together with everything else produced while offline
+		if (event.getEntity() instanceof ServerPlayer player) {
+			settle(player.server, player.getUUID());
+		}
+	}
+
+	@SubscribeEvent
+	public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+		// Still in the player list here, so the ledger can still hand over time spent online
+		if (event.getEntity() instanceof ServerPlayer player) {
+			settle(player.server, player.getUUID());
+		}
+	}
+
+	@SubscribeEvent
+	public static void onServerStopped(ServerStoppedEvent event) {
+		OWNERS.clear();
+		virtual = null;
+		flushTick = 0;
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex.generator;
+
+import dev.latvian.mods.projectex.block.RelayBlock;
+import dev.latvian.mods.projectex.block.entity.RelayBlockEntity;
+import moze_intel.projecte.api.capabilities.block_entity.IEmcStorage;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+
+/**
+ * A group of connected relays that moves EMC as one unit.
+ *
+ * EMC inserted into any member (by collectors, including the relay bonus) is
+ * pooled, and each cycle a single flow plan hands the pool to every non-relay
+ * sink touching any member. Each relay-to-sink edge is capped by that relay's
+ * {@code relayTransfer}, the same cap a lone relay applies per neighbor.
+ *
+ * The member list and per-member caps are built once by {@link RelayNetworks}
+ * and only rebuilt when relays are placed, removed, loaded or unloaded. Member
+ * relays are never scheduled on their own; the network is.
+ *
+ * A network with nothing to move, or nowhere to move it, goes dormant until a
+ * member receives EMC or a member's neighbor changes.
+ */
+public class RelayNetwork implements Generator {
+	private final ServerLevel level;
+	private final GeneratorScheduler scheduler;
+	private final RelayBlockEntity[] members;
+	private final long[] transfer;
+
+	RelayNetwork(ServerLevel level, GeneratorScheduler scheduler, RelayBlockEntity[] members) {
+		this.level = level;
+		this.scheduler = scheduler;
+		this.members = members;
+		this.transfer = new long[members.length];
+
+		for (int i = 0; i < members.length; i++) {
+			transfer[i] = members[i].getBlockState().getBlock() instanceof RelayBlock relay ? relay.matter.relayTransfer : 0L;
+		}
+	}
+
+	public int size() {
+		return members.length;
+	}
+
+	RelayBlockEntity[] getMembers() {
+		return members;
+	}
+
+	@Override
+	public BlockPos getBlockPos() {
+		return members[0].getBlockPos();
+	}
+
+	/**
+	 * Resume if dormant, called when a member receives EMC or a member's neighbor changes
+	 */
+	public void wake() {
+		scheduler.wake(this);
+	}
+
+	private long getPool() {
+		long pool = 0L;
+
+		for (RelayBlockEntity relay : members) {
+			pool += relay.storedEMC;
+
+			if (pool < 0L) {
+				return Long.MAX_VALUE;
+			}
+		}
+
+		return pool;
+	}
+
+	@Override
+	public boolean generate(int cycles) {
+		long pool = getPool();
+
+		if (pool <= 0L) {
+			return false;
+		}
+
+		// Pass 1: find every accepting relay -> sink edge
+		int edges = 0;
+
+		for (RelayBlockEntity relay : members) {
+			edges += relay.getNeighbors().findAccepting(level, true);
+		}
+
+		if (edges == 0 || pool < edges) {
+			return false;
+		}
+
+		// Pass 2: fair share of the pool per edge, capped by the relay's transfer rate
+		long share = pool / edges;
+		long moved = 0L;
+
+		for (int i = 0; i < members.length; i++) {
+			EmcNeighbors neighbors = members[i].getNeighbors();
+			int count = neighbors.getAcceptingCount();
+			long edgeLimit = Math.min(share, saturatedMultiply(transfer[i], cycles));
+
+			for (int j = 0; j < count; j++) {
+				moved += neighbors.get(j).insertEmc(edgeLimit, IEmcStorage.EmcAction.EXECUTE);
+			}
+		}
+
+		if (moved <= 0L) {
+			return false;
+		}
+
+		// Apply: take what was moved out of the members' balances
+		for (RelayBlockEntity relay : members) {
+			if (moved <= 0L) {
+				break;
+			}
+
+			long taken = Math.min(relay.storedEMC, moved);
+
+			if (taken > 0L) {
+				relay.storedEMC -= taken;
+				relay.setChanged();
+				moved -= taken;
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean canWake() {
+		if (getPool() <= 0L) {
+			return false;
+		}
+
+		for (RelayBlockEntity relay : members) {
+			if (relay.getNeighbors().findAccepting(level, true) > 0) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static long saturatedMultiply(long a, int b) {
+		long hi = Math.multiplyHigh(a, b);
+		long lo = a * b;
+		return (hi == 0L && lo >= 0L) ? lo : Long.MAX_VALUE;
+	}
+}
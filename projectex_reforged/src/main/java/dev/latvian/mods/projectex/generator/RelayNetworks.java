@@ -0,0 +1,165 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex.generator;
+
+import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.block.entity.RelayBlockEntity;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the {@link RelayNetwork}s of one level up to date.
+ *
+ * Relays report topology changes here (load, placement, removal, unload).
+ * The networks touching a changed relay are dropped from the scheduler and
+ * their members are regrouped before the next scheduler tick.
+ */
+public class RelayNetworks {
+	private final ServerLevel level;
+	private final GeneratorScheduler scheduler;
+	private final ReferenceLinkedOpenHashSet<RelayBlockEntity> dirty = new ReferenceLinkedOpenHashSet<>();
+	private int networkCount = 0;
+
+	RelayNetworks(ServerLevel level, GeneratorScheduler scheduler) {
+		this.level = level;
+		this.scheduler = scheduler;
+	}
+
+	public int getNetworkCount() {
+		return networkCount;
+	}
+
+	/**
+	 * Called when a relay is loaded or placed
+	 */
+	public void relayAdded(RelayBlockEntity relay) {
+		dirty.add(relay);
+		invalidateNeighbors(relay.getBlockPos());
+	}
+
+	/**
+	 * Called when a relay is removed or unloaded
+	 */
+	public void relayRemoved(RelayBlockEntity relay) {
+		dirty.remove(relay);
+		invalidate(relay.getNetwork());
+		relay.setNetwork(null);
+	}
+
+	private void invalidateNeighbors(BlockPos pos) {
+		for (Direction direction : ProjectEX.DIRECTIONS) {
+			RelayBlockEntity neighbor = getLoadedRelay(pos.relative(direction));
+
+			if (neighbor != null) {
+				invalidate(neighbor.getNetwork());
+			}
+		}
+	}
+
+	private void invalidate(@Nullable RelayNetwork network) {
+		if (network == null) {
+			return;
+		}
+
+		scheduler.remove(network);
+		networkCount--;
+
+		for (RelayBlockEntity member : network.getMembers()) {
+			if (member.getNetwork() == network) {
+				member.setNetwork(null);
+
+				if (!member.isRemoved()) {
+					dirty.add(member);
+				}
+			}
+		}
+	}
+
+	@Nullable
+	private RelayBlockEntity getLoadedRelay(BlockPos pos) {
+		if (!level.isLoaded(pos)) {
+			return null;
+		}
+
+		BlockEntity blockEntity = level.getBlockEntity(pos);
+		return blockEntity instanceof RelayBlockEntity relay && !relay.isRemoved() ? relay : null;
+	}
+
+	/**
+	 * Regroup every relay whose network was invalidated since the last call
+	 */
+	void rebuild() {
+		if (dirty.isEmpty()) {
+			return;
+		}
+
+		ArrayDeque<RelayBlockEntity> open = new ArrayDeque<>();
+		ReferenceOpenHashSet<RelayBlockEntity> visited = new ReferenceOpenHashSet<>();
+		List<RelayBlockEntity> members = new ArrayList<>();
+
+		while (!dirty.isEmpty()) {
+			RelayBlockEntity start = dirty.removeFirst();
+
+			if (start.isRemoved() || start.getNetwork() != null) {
+				continue;
+			}
+
+			// Flood fill through relay-to-relay faces
+			members.clear();
+			visited.clear();
+			open.add(start);
+			visited.add(start);
+
+			while (!open.isEmpty()) {
+				RelayBlockEntity relay = open.poll();
+				members.add(relay);
+
+				for (Direction direction : ProjectEX.DIRECTIONS) {
+					RelayBlockEntity neighbor = getLoadedRelay(relay.getBlockPos().relative(direction));
+
+					if (neighbor != null && visited.add(neighbor)) {
+						// Merging into this network, so any old network it was in goes away
+						invalidate(neighbor.getNetwork());
+						dirty.remove(neighbor);
+						open.add(neighbor);
+					}
+				}
+			}
+
+			RelayNetwork network = new RelayNetwork(level, scheduler, members.toArray(new RelayBlockEntity[0]));
+
+			for (RelayBlockEntity member : members) {
+				member.setNetwork(network);
+			}
+
+			scheduler.add(network);
+			networkCount++;
+		}
+	}
+}
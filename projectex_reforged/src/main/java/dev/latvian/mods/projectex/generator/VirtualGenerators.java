@@ -0,0 +1,304 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.generator;
+
+import dev.latvian.mods.projectex.Matter;
+import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.block.entity.CollectorBlockEntity;
+import dev.latvian.mods.projectex.block.entity.PowerFlowerBlockEntity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Server-wide registry of Power Flowers and Collectors that sit in unloaded chunks.
+ *
+ * When a chunk unloads, its flowers and collectors leave an entry here instead
+ * of disappearing. Flowers stay counted in the {@link PowerFlowerTracker}, so
+ * their owner keeps being credited without the chunk being loaded. Collectors
+ * remember when they were unloaded and get the output of the elapsed cycles
+ * added to their buffer when the chunk loads again.
+ *
+ * Entries are reconciled with the real block entities on chunk load: entries
+ * whose block entity is gone are dropped, the rest are taken over by the block
+ * entity in onLoad(). Loaded generators are written here on server stop too,
+ * so they keep producing after a restart even if their chunk is never loaded.
+ *
+ * Saved with the overworld, in data/projectex_virtual_generators.dat
+ */
+@EventBusSubscriber(modid = ProjectEX.MOD_ID)
+public class VirtualGenerators extends SavedData {
+	private static final String DATA_NAME = "projectex_virtual_generators";
+	private static final SavedData.Factory<VirtualGenerators> FACTORY = new SavedData.Factory<>(VirtualGenerators::new, VirtualGenerators::load);
+
+	public enum Kind {
+		FLOWER,
+		COLLECTOR
+	}
+
+	/**
+	 * A generator in an unloaded chunk
+	 *
+	 * @param owner      Owner of a flower, nil for collectors
+	 * @param unloadedAt Game time the chunk was unloaded at
+	 */
+	public record Entry(Kind kind, Matter matter, UUID owner, long unloadedAt) {
+	}
+
+	// Dimension -> chunk -> block position -> entry
+	private final Map<ResourceKey<Level>, Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<Entry>>> entries = new HashMap<>();
+	private final int[] counts = new int[Kind.values().length];
+
+	public static VirtualGenerators get(MinecraftServer server) {
+		return server.overworld().getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+	}
+
+	private static VirtualGenerators load(CompoundTag tag, HolderLookup.Provider registries) {
+		VirtualGenerators data = new VirtualGenerators();
+		ListTag list = tag.getList("Generators", Tag.TAG_COMPOUND);
+
+		for (int i = 0; i < list.size(); i++) {
+			CompoundTag t = list.getCompound(i);
+			ResourceLocation dimension = ResourceLocation.tryParse(t.getString("Dimension"));
+			Matter matter = getMatter(t.getString("Matter"));
+
+			if (dimension == null || matter == null) {
+				continue;
+			}
+
+			Kind kind = t.getString("Kind").equals("collector") ? Kind.COLLECTOR : Kind.FLOWER;
+			data.put(ResourceKey.create(Registries.DIMENSION, dimension), t.getLong("Pos"), new Entry(kind, matter, t.getUUID("Owner"), t.getLong("UnloadedAt")));
+		}
+
+		return data;
+	}
+
+	@Nullable
+	private static Matter getMatter(String name) {
+		for (Matter matter : Matter.VALUES) {
+			if (matter.name.equals(name)) {
+				return matter;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+		ListTag list = new ListTag();
+
+		for (Map.Entry<ResourceKey<Level>, Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<Entry>>> dimension : entries.entrySet()) {
+			String dimensionId = dimension.getKey().location().toString();
+
+			for (Long2ObjectOpenHashMap<Entry> chunk : dimension.getValue().values()) {
+				for (Long2ObjectMap.Entry<Entry> e : chunk.long2ObjectEntrySet()) {
+					Entry entry = e.getValue();
+					CompoundTag t = new CompoundTag();
+					t.putString("Dimension", dimensionId);
+					t.putLong("Pos", e.getLongKey());
+					t.putString("Kind", entry.kind() == Kind.COLLECTOR ? "collector" : "flower");
+					t.putString("Matter", entry.matter().name);
+					t.putUUID("Owner", entry.owner());
+					t.putLong("UnloadedAt", entry.unloadedAt());
+					list.add(t);
+				}
+			}
+		}
+
+		tag.put("Generators", list);
+		return tag;
+	}
+
+	private void put(ResourceKey<Level> dimension, long pos, Entry entry) {
+		Entry old = entries.computeIfAbsent(dimension, k -> new Long2ObjectOpenHashMap<>())
+				.computeIfAbsent(ChunkPos.asLong(BlockPos.getX(pos) >> 4, BlockPos.getZ(pos) >> 4), k -> new Long2ObjectOpenHashMap<>())
+				.put(pos, entry);
+
+		if (old != null) {
+			counts[old.kind().ordinal()]--;
+		}
+
+		counts[entry.kind().ordinal()]++;
+		setDirty();
+	}
+
+	public void putFlower(ResourceKey<Level> dimension, BlockPos pos, UUID owner, Matter matter) {
+		put(dimension, pos.asLong(), new Entry(Kind.FLOWER, matter, owner, 0L));
+	}
+
+	public void putCollector(ResourceKey<Level> dimension, BlockPos pos, Matter matter, long now) {
+		put(dimension, pos.asLong(), new Entry(Kind.COLLECTOR, matter, Util.NIL_UUID, now));
+	}
+
+	/**
+	 * Take over the entry at a position, if there is one
+	 */
+	@Nullable
+	public Entry remove(ResourceKey<Level> dimension, BlockPos pos) {
+		Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<Entry>> chunks = entries.get(dimension);
+
+		if (chunks == null) {
+			return null;
+		}
+
+		long chunkPos = ChunkPos.asLong(pos);
+		Long2ObjectOpenHashMap<Entry> chunk = chunks.get(chunkPos);
+		Entry entry = chunk == null ? null : chunk.remove(pos.asLong());
+
+		if (entry != null) {
+			if (chunk.isEmpty()) {
+				chunks.remove(chunkPos);
+			}
+
+			counts[entry.kind().ordinal()]--;
+			setDirty();
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Visit every flower entry, used to count them when the server starts
+	 */
+	public void forEachFlower(Consumer<Entry> consumer) {
+		for (Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<Entry>> chunks : entries.values()) {
+			for (Long2ObjectOpenHashMap<Entry> chunk : chunks.values()) {
+				for (Entry entry : chunk.values()) {
+					if (entry.kind() == Kind.FLOWER) {
+						consumer.accept(entry);
+					}
+				}
+			}
+		}
+	}
+
+	public int getCount(Kind kind) {
+		return counts[kind.ordinal()];
+	}
+
+	/**
+	 * Whole cycles a collector spent unloaded
+	 */
+	public static long getElapsedCycles(Entry entry, long now) {
+		return Math.max(0L, (now - entry.unloadedAt()) / GeneratorScheduler.CYCLE_TICKS);
+	}
+
+	/**
+	 * Drop entries whose block entity no longer exists in a freshly loaded chunk.
+	 * Valid entries are left for the block entity to take over in onLoad().
+	 */
+	private void reconcile(ServerLevel level, ChunkAccess chunk) {
+		Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<Entry>> chunks = entries.get(level.dimension());
+		Long2ObjectOpenHashMap<Entry> map = chunks == null ? null : chunks.get(chunk.getPos().toLong());
+
+		if (map == null) {
+			return;
+		}
+
+		Iterator<Long2ObjectMap.Entry<Entry>> iterator = map.long2ObjectEntrySet().iterator();
+
+		while (iterator.hasNext()) {
+			Long2ObjectMap.Entry<Entry> e = iterator.next();
+			Entry entry = e.getValue();
+			BlockEntity blockEntity = chunk.getBlockEntity(BlockPos.of(e.getLongKey()));
+			boolean valid = entry.kind() == Kind.COLLECTOR ? blockEntity instanceof CollectorBlockEntity : blockEntity instanceof PowerFlowerBlockEntity;
+
+			if (!valid) {
+				iterator.remove();
+				counts[entry.kind().ordinal()]--;
+				setDirty();
+
+				if (entry.kind() == Kind.FLOWER) {
+					PowerFlowerTracker.removeVirtual(level.getServer(), entry.owner(), entry.matter());
+				}
+			}
+		}
+
+		if (map.isEmpty()) {
+			chunks.remove(chunk.getPos().toLong());
+		}
+	}
+
+	@SubscribeEvent
+	public static void onServerStarted(ServerStartedEvent event) {
+		PowerFlowerTracker.loadVirtual(event.getServer());
+	}
+
+	@SubscribeEvent
+	public static void onChunkLoad(ChunkEvent.Load event) {
+		if (event.getLevel() instanceof ServerLevel level) {
+			get(level.getServer()).reconcile(level, event.getChunk());
+		}
+	}
+
+	@SubscribeEvent
+	public static void onServerStopping(ServerStoppingEvent event) {
+		// Nothing is unloaded on shutdown, so record what's loaded for the next start
+		MinecraftServer server = event.getServer();
+		VirtualGenerators data = get(server);
+		long now = server.overworld().getGameTime();
+
+		PowerFlowerTracker.saveVirtual(server, data);
+
+		for (ServerLevel level : server.getAllLevels()) {
+			GeneratorScheduler scheduler = GeneratorScheduler.getIfPresent(level);
+
+			if (scheduler == null) {
+				continue;
+			}
+
+			scheduler.forEach(generator -> {
+				if (generator instanceof CollectorBlockEntity collector && collector.getMatter() != null) {
+					long dormantSince = scheduler.getDormantSince(collector);
+					data.putCollector(level.dimension(), collector.getBlockPos(), collector.getMatter(), dormantSince >= 0L ? dormantSince : now);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.integration.ae2;
+
+import appeng.api.AECapabilities;
+import dev.latvian.mods.projectex.block.entity.LinkBaseBlockEntity;
+import dev.latvian.mods.projectex.block.entity.ProjectEXBlockEntities;
+import dev.latvian.mods.projectex.emc.OwnerCache;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
+import moze_intel.projecte.api.event.PlayerKnowledgeChangeEvent;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.neoforge.capabilities.RegisterCapabilitiesEvent;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applied Energistics 2 integration
+ *
+ * Only loaded when IntegrationHelper.isAE2Loaded() is true, so nothing
+ * outside this package may reference AE2 classes.
+ *
+ * Gives Refined Links an ME storage capability, so a Storage Bus facing one
+ * sees the owner's learned items. Learning or forgetting an item is applied
+ * to the owner's amounts as a delta and the adjacent grids are told about it.
+ */
+public class AE2Integration {
+	// One set of cached amounts per owner, shared by all of their links
+	private static final Map<UUID, KnowledgeAmounts> AMOUNTS = new HashMap<>();
+
+	// One storage per link. Removed and unloaded links are pruned as the map grows.
+	private static final Reference2ObjectOpenHashMap<LinkBaseBlockEntity, RefinedLinkMEStorage> STORAGES = new Reference2ObjectOpenHashMap<>();
+	private static int pruneAt = 64;
+
+	public static void init(IEventBus modEventBus) {
+		modEventBus.addListener(AE2Integration::registerCapabilities);
+		NeoForge.EVENT_BUS.addListener(AE2Integration::serverStopped);
+
+		// After KnowledgeView has seen the change
+		NeoForge.EVENT_BUS.addListener(EventPriority.LOW, AE2Integration::knowledgeChanged);
+	}
+
+	private static void registerCapabilities(RegisterCapabilitiesEvent event) {
+		if (ProjectEXBlockEntities.REFINED_LINK != null) {
+			event.registerBlockEntity(
+				AECapabilities.ME_STORAGE,
+				ProjectEXBlockEntities.REFINED_LINK.get(),
+				(blockEntity, side) -> getStorage(blockEntity)
+			);
+		}
+
+		if (ProjectEXBlockEntities.COMPRESSED_REFINED_LINK != null) {
+			event.registerBlockEntity(
+				AECapabilities.ME_STORAGE,
+				ProjectEXBlockEntities.COMPRESSED_REFINED_LINK.get(),
+				(blockEntity, side) -> getStorage(blockEntity)
+			);
+		}
+	}
+
+	/**
+	 * The one storage of a link, created on the first capability query
+	 */
+	private static RefinedLinkMEStorage getStorage(LinkBaseBlockEntity link) {
+		RefinedLinkMEStorage storage = STORAGES.get(link);
+
+		if (storage == null) {
+			if (STORAGES.size() >= pruneAt) {
+				STORAGES.keySet().removeIf(BlockEntity::isRemoved);
+				pruneAt = Math.max(64, STORAGES.size() * 2);
+			}
+
+			storage = new RefinedLinkMEStorage(link);
+			STORAGES.put(link, storage);
+		}
+
+		return storage;
+	}
+
+	private static void knowledgeChanged(PlayerKnowledgeChangeEvent event) {
+		UUID owner = event.getPlayerUUID();
+		KnowledgeAmounts amounts = AMOUNTS.get(owner);
+		IKnowledgeProvider knowledge = OwnerCache.getKnowledge(owner);
+
+		// Nobody has listed this owner's items yet, or they can't be read now
+		if (amounts == null || knowledge == null) {
+			return;
+		}
+
+		int version = amounts.getVersion();
+		amounts.update(knowledge);
+
+		if (amounts.getVersion() != version) {
+			for (RefinedLinkMEStorage storage : STORAGES.values()) {
+				if (storage.isOwnedBy(owner)) {
+					storage.notifyGrids();
+				}
+			}
+		}
+	}
+
+	private static void serverStopped(ServerStoppedEvent event) {
+		AMOUNTS.clear();
+		STORAGES.clear();
+		pruneAt = 64;
+	}
+
+	static KnowledgeAmounts getAmounts(UUID owner) {
+		return AMOUNTS.computeIfAbsent(owner, KnowledgeAmounts::new);
+	}
+}
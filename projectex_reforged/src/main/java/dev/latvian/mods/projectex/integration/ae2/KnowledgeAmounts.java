@@ -0,0 +1,119 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.integration.ae2;
+
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.KeyCounter;
+import dev.latvian.mods.projectex.emc.KnowledgeView;
+import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
+
+import java.util.UUID;
+
+/**
+ * How many of each learned item an owner's EMC pays for, as an AE2 KeyCounter.
+ *
+ * The counter is patched rather than rebuilt: learned and forgotten items are
+ * added and removed one by one as the {@link KnowledgeView} reports them, and
+ * amounts are only recalculated once the balance has moved by more than
+ * 1/{@value #THRESHOLD} since they were last worked out. Extraction always
+ * checks the exact balance, so a slightly stale amount can't overdraw it.
+ */
+public class KnowledgeAmounts implements KnowledgeView.Listener<AEItemKey> {
+	// Balance change (as a fraction of the balance) that makes amounts stale
+	private static final int THRESHOLD = 64;
+
+	private final KnowledgeView<AEItemKey> view;
+	private final KeyCounter amounts = new KeyCounter();
+	private long balance = -1L;
+	private boolean removed = false;
+
+	// Bumped whenever any amount changes
+	private int version = 0;
+
+	KnowledgeAmounts(UUID owner) {
+		view = new KnowledgeView<>(owner, info -> AEItemKey.of(info.createStack()));
+	}
+
+	public KnowledgeView<AEItemKey> getView() {
+		return view;
+	}
+
+	/**
+	 * Changes every time an amount is added, removed or recalculated
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Apply any knowledge change and recalculate amounts if the balance moved too far
+	 */
+	public KeyCounter update(IKnowledgeProvider knowledge) {
+		long current = KnowledgeView.getBalance(knowledge);
+
+		if (isStale(current)) {
+			// Amounts are rebuilt anyway, so listen to nothing
+			view.update(knowledge);
+			balance = current;
+			amounts.clear();
+			removed = false;
+			version++;
+
+			for (KnowledgeView.Entry<AEItemKey> entry : view.getEntries()) {
+				long amount = entry.getAmount(balance);
+
+				if (amount > 0L) {
+					amounts.add(entry.key, amount);
+				}
+			}
+		} else if (view.update(knowledge, this) && removed) {
+			amounts.removeZeros();
+			removed = false;
+		}
+
+		return amounts;
+	}
+
+	private boolean isStale(long current) {
+		if (balance < 0L) {
+			return true;
+		}
+
+		return Math.abs(current - balance) > balance / THRESHOLD;
+	}
+
+	@Override
+	public void added(KnowledgeView.Entry<AEItemKey> entry) {
+		long amount = entry.getAmount(balance);
+
+		if (amount > 0L) {
+			amounts.add(entry.key, amount);
+			version++;
+		}
+	}
+
+	@Override
+	public void removed(KnowledgeView.Entry<AEItemKey> entry) {
+		amounts.set(entry.key, 0L);
+		removed = true;
+		version++;
+	}
+}
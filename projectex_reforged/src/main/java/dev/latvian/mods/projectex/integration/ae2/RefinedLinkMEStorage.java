@@ -0,0 +1,160 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.integration.ae2;
+
+import appeng.api.config.Actionable;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.IInWorldGridNodeHost;
+import appeng.api.networking.security.IActionSource;
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.KeyCounter;
+import appeng.api.storage.MEStorage;
+import dev.latvian.mods.projectex.ProjectEX;
+import dev.latvian.mods.projectex.block.entity.LinkBaseBlockEntity;
+import dev.latvian.mods.projectex.emc.EmcLedger;
+import dev.latvian.mods.projectex.emc.KnowledgeView;
+import dev.latvian.mods.projectex.emc.LinkExtraction;
+import dev.latvian.mods.projectex.emc.OwnerCache;
+import moze_intel.projecte.api.ItemInfo;
+import moze_intel.projecte.api.proxy.IEMCProxy;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.level.Level;
+
+import java.util.UUID;
+
+/**
+ * The owner's learned items, as seen by an AE2 Storage Bus facing a Refined Link.
+ *
+ * Same rules as the RS2 storage: extracting spends EMC, inserting converts
+ * items to EMC at their sell value through the {@link EmcLedger}. Listed
+ * amounts come from the owner's {@link KnowledgeAmounts}, which only changes
+ * by deltas.
+ *
+ * One instance per link, see {@link AE2Integration}. When the owner learns or
+ * forgets items, the grids of adjacent AE2 nodes are told to refresh this
+ * storage right away, instead of finding out on their next poll.
+ */
+public class RefinedLinkMEStorage implements MEStorage {
+	private final LinkBaseBlockEntity link;
+
+	RefinedLinkMEStorage(LinkBaseBlockEntity link) {
+		this.link = link;
+	}
+
+	private boolean isValid() {
+		return !link.isRemoved() && link.hasOwner();
+	}
+
+	boolean isOwnedBy(UUID owner) {
+		return isValid() && owner.equals(link.owner);
+	}
+
+	@Override
+	public long extract(AEKey what, long amount, Actionable mode, IActionSource source) {
+		if (amount <= 0L || !isValid() || !(what instanceof AEItemKey)) {
+			return 0L;
+		}
+
+		OwnerCache.Handle handle = OwnerCache.get(link.owner);
+
+		if (handle == null) {
+			return 0L;
+		}
+
+		KnowledgeAmounts amounts = AE2Integration.getAmounts(link.owner);
+		amounts.update(handle.knowledge());
+		KnowledgeView.Entry<AEItemKey> entry = amounts.getView().get((AEItemKey) what);
+
+		if (entry == null) {
+			return 0L;
+		}
+
+		return LinkExtraction.extract(link, handle, entry.emc, amount, mode == Actionable.MODULATE);
+	}
+
+	@Override
+	public long insert(AEKey what, long amount, Actionable mode, IActionSource source) {
+		if (amount <= 0L || !isValid() || !(what instanceof AEItemKey item)) {
+			return 0L;
+		}
+
+		long emc = IEMCProxy.INSTANCE.getSellValue(ItemInfo.fromStack(item.toStack()));
+
+		if (emc <= 0L) {
+			return 0L;
+		}
+
+		// Only as many as the ledger can take in one deposit
+		long inserted = Math.min(amount, Long.MAX_VALUE / emc);
+
+		if (mode == Actionable.MODULATE) {
+			EmcLedger.deposit(link.owner, inserted * emc);
+		}
+
+		return inserted;
+	}
+
+	@Override
+	public void getAvailableStacks(KeyCounter out) {
+		if (!isValid()) {
+			return;
+		}
+
+		OwnerCache.Handle handle = OwnerCache.get(link.owner);
+
+		if (handle != null) {
+			out.addAll(AE2Integration.getAmounts(link.owner).update(handle.knowledge()));
+		}
+	}
+
+	/**
+	 * Tell the grids of adjacent AE2 nodes (Storage Buses) that the listed stacks changed
+	 */
+	void notifyGrids() {
+		Level level = link.getLevel();
+
+		if (level == null || level.isClientSide() || !isValid()) {
+			return;
+		}
+
+		for (Direction direction : ProjectEX.DIRECTIONS) {
+			BlockPos pos = link.getBlockPos().relative(direction);
+
+			if (!level.isLoaded(pos) || !(level.getBlockEntity(pos) instanceof IInWorldGridNodeHost host)) {
+				continue;
+			}
+
+			IGridNode node = host.getGridNode(direction.getOpposite());
+
+			if (node != null && node.getGrid() != null) {
+				node.getGrid().getStorageService().refreshNodeStorageProvider(node);
+			}
+		}
+	}
+
+	@Override
+	public Component getDescription() {
+		return link.getBlockState().getBlock().getName();
+	}
+}
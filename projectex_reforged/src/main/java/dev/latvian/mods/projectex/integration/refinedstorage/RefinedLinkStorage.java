@@ -0,0 +1,165 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.integration.refinedstorage;
+
+import com.refinedmods.refinedstorage.api.core.Action;
+import com.refinedmods.refinedstorage.api.resource.ResourceAmount;
+import com.refinedmods.refinedstorage.api.resource.ResourceKey;
+import com.refinedmods.refinedstorage.api.storage.Actor;
+import com.refinedmods.refinedstorage.api.storage.external.ExternalStorageProvider;
+import com.refinedmods.refinedstorage.common.support.resource.ItemResource;
+import dev.latvian.mods.projectex.block.entity.LinkBaseBlockEntity;
+import dev.latvian.mods.projectex.emc.EmcLedger;
+import dev.latvian.mods.projectex.emc.KnowledgeView;
+import dev.latvian.mods.projectex.emc.LinkExtraction;
+import dev.latvian.mods.projectex.emc.OwnerCache;
+import moze_intel.projecte.api.ItemInfo;
+import moze_intel.projecte.api.proxy.IEMCProxy;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The owner's learned items, as seen by an RS2 External Storage facing a Refined Link.
+ *
+ * Each known item is listed with as many as the owner's EMC pays for.
+ * Extracting spends EMC through {@link LinkExtraction}, inserting converts
+ * items to EMC at their sell value.
+ *
+ * The item list comes from the owner's {@link KnowledgeView}, which is only
+ * patched when their knowledge changes, and amounts are only worked out as
+ * RS2 walks the list. Knowledge can only be read and spent while the owner is
+ * online; insertions go through the {@link EmcLedger}, so they work either way.
+ */
+public class RefinedLinkStorage implements ExternalStorageProvider {
+	private final LinkBaseBlockEntity link;
+
+	public RefinedLinkStorage(LinkBaseBlockEntity link) {
+		this.link = link;
+	}
+
+	@Nullable
+	private KnowledgeView<ItemResource> getView(OwnerCache.Handle handle) {
+		if (link.isRemoved() || !link.hasOwner()) {
+			return null;
+		}
+
+		KnowledgeView<ItemResource> view = RefinedStorageIntegration.getView(link.owner);
+		view.update(handle.knowledge());
+		return view;
+	}
+
+	@Override
+	public long extract(ResourceKey resource, long amount, Action action, Actor actor) {
+		if (amount <= 0L || !(resource instanceof ItemResource item)) {
+			return 0L;
+		}
+
+		OwnerCache.Handle handle = OwnerCache.get(link.owner);
+		KnowledgeView<ItemResource> view = handle == null ? null : getView(handle);
+		KnowledgeView.Entry<ItemResource> entry = view == null ? null : view.get(item);
+
+		if (entry == null) {
+			return 0L;
+		}
+
+		return LinkExtraction.extract(link, handle, entry.emc, amount, action == Action.EXECUTE);
+	}
+
+	@Override
+	public long insert(ResourceKey resource, long amount, Action action, Actor actor) {
+		if (amount <= 0L || link.isRemoved() || !link.hasOwner() || !(resource instanceof ItemResource item)) {
+			return 0L;
+		}
+
+		long emc = IEMCProxy.INSTANCE.getSellValue(ItemInfo.fromItem(item.item(), item.components()));
+
+		if (emc <= 0L) {
+			return 0L;
+		}
+
+		// Only as many as the ledger can take in one deposit
+		long inserted = Math.min(amount, Long.MAX_VALUE / emc);
+
+		if (action == Action.EXECUTE) {
+			EmcLedger.deposit(link.owner, inserted * emc);
+		}
+
+		return inserted;
+	}
+
+	@Override
+	public Iterator<ResourceAmount> iterator() {
+		OwnerCache.Handle handle = OwnerCache.get(link.owner);
+		KnowledgeView<ItemResource> view = handle == null ? null : getView(handle);
+
+		if (view == null) {
+			return Collections.emptyIterator();
+		}
+
+		return new AmountIterator(view.getEntries(), KnowledgeView.getBalance(handle.knowledge()));
+	}
+
+	/**
+	 * Walks the cached entries and works out each amount only when it's reached
+	 */
+	private static class AmountIterator implements Iterator<ResourceAmount> {
+		private final List<KnowledgeView.Entry<ItemResource>> entries;
+		private final long balance;
+		private int index = 0;
+
+		@Nullable
+		private ResourceAmount next;
+
+		private AmountIterator(List<KnowledgeView.Entry<ItemResource>> entries, long balance) {
+			this.entries = entries;
+			this.balance = balance;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null && index < entries.size()) {
+				KnowledgeView.Entry<ItemResource> entry = entries.get(index++);
+				long amount = entry.getAmount(balance);
+
+				if (amount > 0L) {
+					next = new ResourceAmount(entry.key, amount);
+				}
+			}
+
+			return next != null;
+		}
+
+		@Override
+		public ResourceAmount next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			ResourceAmount amount = next;
+			next = null;
+			return amount;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.integration.refinedstorage;
+
+import com.refinedmods.refinedstorage.api.storage.external.ExternalStorageProvider;
+import com.refinedmods.refinedstorage.common.api.storage.externalstorage.PlatformExternalStorageProviderFactory;
+import dev.latvian.mods.projectex.block.entity.CompressedRefinedLinkBlockEntity;
+import dev.latvian.mods.projectex.block.entity.LinkBaseBlockEntity;
+import dev.latvian.mods.projectex.block.entity.RefinedLinkBlockEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.entity.BlockEntity;
+
+import java.util.Optional;
+
+/**
+ * Lets RS2 External Storages use Refined Links
+ */
+public class RefinedLinkStorageProviderFactory implements PlatformExternalStorageProviderFactory {
+	@Override
+	public Optional<ExternalStorageProvider> create(ServerLevel level, BlockPos pos, Direction direction) {
+		BlockEntity blockEntity = level.getBlockEntity(pos);
+
+		if (blockEntity instanceof RefinedLinkBlockEntity || blockEntity instanceof CompressedRefinedLinkBlockEntity) {
+			return Optional.of(new RefinedLinkStorage((LinkBaseBlockEntity) blockEntity));
+		}
+
+		return Optional.empty();
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+
+package dev.latvian.mods.projectex.integration.refinedstorage;
+
+import com.refinedmods.refinedstorage.common.api.RefinedStorageApi;
+import com.refinedmods.refinedstorage.common.support.resource.ItemResource;
+import dev.latvian.mods.projectex.emc.KnowledgeView;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Refined Storage 2 integration
+ *
+ * Only loaded when IntegrationHelper.isRefinedStorageLoaded() is true, so
+ * nothing outside this package may reference RS2 classes.
+ *
+ * Registers an external storage provider that lets an External Storage
+ * facing a Refined Link see the owner's learned items.
+ */
+public class RefinedStorageIntegration {
+	// One knowledge view per owner, shared by all of their links
+	private static final Map<UUID, KnowledgeView<ItemResource>> VIEWS = new HashMap<>();
+
+	public static void init(IEventBus modEventBus) {
+		modEventBus.addListener(RefinedStorageIntegration::commonSetup);
+		NeoForge.EVENT_BUS.addListener(RefinedStorageIntegration::serverStopped);
+	}
+
+	private static void commonSetup(FMLCommonSetupEvent event) {
+		event.enqueueWork(() -> RefinedStorageApi.INSTANCE.addExternalStorageProviderFactory(new RefinedLinkStorageProviderFactory()));
+	}
+
+	private static void serverStopped(ServerStoppedEvent event) {
+		VIEWS.clear();
+	}
+
+	static KnowledgeView<ItemResource> getView(UUID owner) {
+		return VIEWS.computeIfAbsent(owner, id -> new KnowledgeView<>(id, info -> new ItemResource(info.getItem().value(), info.getComponentsPatch())));
+	}
+}
@@ -19,6 +19,7 @@
 
 package dev.latvian.mods.projectex.item;
 
+import dev.latvian.mods.projectex.emc.EmcSync;
 import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
 import moze_intel.projecte.api.capabilities.PECapabilities;
 import net.minecraft.ChatFormatting;
@@ -54,7 +55,7 @@ public class FinalStarItem extends Item {
 
 			if (provider != null) {
 				provider.setEmc(BigInteger.ZERO);
-				provider.syncEmc((ServerPlayer) player);
+				EmcSync.markDirty((ServerPlayer) player);
 			}
 			return InteractionResultHolder.success(player.getItemInHand(hand));
 		}
@@ -138,11 +138,17 @@ public class ProjectEXItems {
 			REGISTRY.register("arcane_tablet", ArcaneTabletItem::new);
 
 	// Compressed Collectors
-	public static final Map<Matter, DeferredItem<Item>> COMPRESSED_COLLECTOR =
-			Util.make(new LinkedHashMap<>(), map -> {
-				for (Matter matter : Matter.VALUES) {
-					map.put(matter, REGISTRY.register(matter.name + "_compressed_collector",
-							FoilItem::new));
-				}
-			});
+	public static final Map<Matter, DeferredItem<BlockItem>> COMPRESSED_COLLECTOR = compressedCollectors(ProjectEXBlocks.COMPRESSED_COLLECTOR);
+	public static final Map<Matter, DeferredItem<BlockItem>> DOUBLE_COMPRESSED_COLLECTOR = compressedCollectors(ProjectEXBlocks.DOUBLE_COMPRESSED_COLLECTOR);
+	public static final Map<Matter, DeferredItem<BlockItem>> TRIPLE_COMPRESSED_COLLECTOR = compressedCollectors(ProjectEXBlocks.TRIPLE_COMPRESSED_COLLECTOR);
+
+	private static Map<Matter, DeferredItem<BlockItem>> compressedCollectors(Map<Matter, DeferredBlock<Block>> blocks) {
+		return Util.make(new LinkedHashMap<>(), map -> {
+			for (Matter matter : Matter.VALUES) {
+				DeferredBlock<Block> block = blocks.get(matter);
+				map.put(matter, REGISTRY.register(block.getId().getPath(),
+						() -> new FoilBlockItem(block.get())));
+			}
+		});
+	}
 }
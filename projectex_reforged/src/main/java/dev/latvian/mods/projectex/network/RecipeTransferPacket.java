@@ -20,10 +20,11 @@
 package dev.latvian.mods.projectex.network;
 
 import dev.latvian.mods.projectex.container.AlchemyTableMenu;
+import dev.latvian.mods.projectex.container.IngredientResolver;
+import dev.latvian.mods.projectex.container.InventoryIndex;
 import io.netty.buffer.ByteBuf;
 import moze_intel.projecte.api.capabilities.PECapabilities;
 import moze_intel.projecte.api.capabilities.IKnowledgeProvider;
-import moze_intel.projecte.api.proxy.IEMCProxy;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.codec.ByteBufCodecs;
 import net.minecraft.network.codec.StreamCodec;
@@ -106,6 +107,8 @@ public record RecipeTransferPacket(ResourceLocation recipeId, boolean maxTransfe
 			// Get recipe ingredients
 			List<Ingredient> ingredients = recipe.getIngredients();
 			Inventory playerInventory = serverPlayer.getInventory();
+			InventoryIndex inventory = new InventoryIndex(playerInventory);
+			IngredientResolver.Session resolver = new IngredientResolver.Session(knowledge, inventory);
 
 			// For each ingredient slot (up to 9 for 3x3 grid)
 			for (int i = 0; i < Math.min(ingredients.size(), 9); i++) {
@@ -114,43 +117,32 @@ public record RecipeTransferPacket(ResourceLocation recipeId, boolean maxTransfe
 					continue;
 				}
 
-				// Find matching item in player inventory
-				ItemStack matchingStack = ItemStack.EMPTY;
-				int inventorySlot = -1;
+				// Cheapest matching item still in the inventory
+				ItemStack singleItem = ItemStack.EMPTY;
 
-				for (int slot = 0; slot < playerInventory.getContainerSize(); slot++) {
-					ItemStack invStack = playerInventory.getItem(slot);
-					if (ingredient.test(invStack)) {
-						matchingStack = invStack;
-						inventorySlot = slot;
+				for (ItemStack stack : resolver.supply(ingredient).onHand()) {
+					if (inventory.consume(stack, 1) == 1) {
+						singleItem = stack.copyWithCount(1);
 						break;
 					}
 				}
 
-				if (!matchingStack.isEmpty() && inventorySlot >= 0) {
-					// Found item in inventory - move 1 to crafting grid
-					ItemStack singleItem = matchingStack.split(1);
-					alchemyTable.getSlot(i).set(singleItem);
-					playerInventory.setChanged();
-				} else {
-					// Item not found in inventory - check if can be transmuted from EMC
-					// Get first matching item from ingredient
-					ItemStack[] possibleItems = ingredient.getItems();
-					if (possibleItems.length > 0) {
-						ItemStack testStack = possibleItems[0];
-						long emcValue = IEMCProxy.INSTANCE.getValue(testStack);
-
-						if (emcValue > 0 && knowledge.hasKnowledge(testStack)) {
-							// Player has knowledge and EMC - don't place item
-							// EMC auto-fill will handle it during crafting
-							// Leave slot empty (visual indication that it needs EMC)
-						} else {
-							// Can't craft this recipe - missing item and no EMC/knowledge
-							// For now, just leave slot empty
-							// TODO: Could return error to show user via IRecipeTransferError
+				// Otherwise any matching variant, e.g. one with different components
+				if (singleItem.isEmpty()) {
+					for (int slot = 0; slot < playerInventory.getContainerSize(); slot++) {
+						ItemStack invStack = playerInventory.getItem(slot);
+						if (ingredient.test(invStack)) {
+							singleItem = invStack.split(1);
+							break;
 						}
 					}
 				}
+
+				// Slots left empty are transmuted from EMC while crafting, if the player knows the item
+				if (!singleItem.isEmpty()) {
+					alchemyTable.getSlot(i).set(singleItem);
+					playerInventory.setChanged();
+				}
 			}
 
 			// Mark container as changed
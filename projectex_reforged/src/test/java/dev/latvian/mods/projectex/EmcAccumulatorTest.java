@@ -0,0 +1,199 @@
+/*
+ * ProjectEX
+ *
+ * Copyright (C) 2024 LatvianModder (original author)
+ * Copyright (C) 2024 LightWraith8268 (1.21.1+ NeoForge port)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 3
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * https://www.gnu.org/licenses/lgpl-3.0.html
+ */
+
+package dev.latvian.mods.projectex;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks {@link EmcAccumulator} against {@link BigInteger} around the long and unsigned 64-bit boundaries
+ */
+public class EmcAccumulatorTest {
+	private static final BigInteger TWO_64 = BigInteger.ONE.shiftLeft(64);
+	private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+	private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+
+	// Values next to the boundaries where carries and borrows happen
+	private static final long[] EDGES = {
+			0L, 1L, -1L, 2L, -2L,
+			Long.MAX_VALUE, Long.MAX_VALUE - 1L,
+			Long.MIN_VALUE, Long.MIN_VALUE + 1L,
+			0xFFFF_FFFFL, 0x1_0000_0000L,
+	};
+
+	private static EmcAccumulator of(BigInteger value) {
+		EmcAccumulator accumulator = new EmcAccumulator();
+		accumulator.set(value);
+		return accumulator;
+	}
+
+	private static BigInteger[] startValues() {
+		return new BigInteger[]{
+				BigInteger.ZERO,
+				LONG_MAX,
+				LONG_MAX.add(BigInteger.ONE),
+				LONG_MIN,
+				LONG_MIN.subtract(BigInteger.ONE),
+				TWO_64.subtract(BigInteger.ONE),
+				TWO_64,
+				TWO_64.add(BigInteger.ONE),
+				TWO_64.negate(),
+				TWO_64.multiply(BigInteger.valueOf(12345L)).subtract(BigInteger.ONE),
+		};
+	}
+
+	@Test
+	public void addLongCarries() {
+		for (BigInteger start : startValues()) {
+			for (long value : EDGES) {
+				EmcAccumulator accumulator = of(start);
+				accumulator.add(value);
+				assertEquals(start.add(BigInteger.valueOf(value)), accumulator.toBigInteger(), start + " + " + value);
+			}
+		}
+	}
+
+	@Test
+	public void subtractLongBorrows() {
+		for (BigInteger start : startValues()) {
+			for (long value : EDGES) {
+				EmcAccumulator accumulator = of(start);
+				accumulator.subtract(value);
+				assertEquals(start.subtract(BigInteger.valueOf(value)), accumulator.toBigInteger(), start + " - " + value);
+			}
+		}
+	}
+
+	@Test
+	public void addAndSubtractAccumulators() {
+		for (BigInteger a : startValues()) {
+			for (BigInteger b : startValues()) {
+				EmcAccumulator sum = of(a);
+				sum.add(of(b));
+				assertEquals(a.add(b), sum.toBigInteger(), a + " + " + b);
+
+				EmcAccumulator difference = of(a);
+				difference.subtract(of(b));
+				assertEquals(a.subtract(b), difference.toBigInteger(), a + " - " + b);
+			}
+		}
+	}
+
+	@Test
+	public void repeatedAddPastLongMax() {
+		EmcAccumulator accumulator = new EmcAccumulator();
+		BigInteger expected = BigInteger.ZERO;
+
+		for (int i = 0; i < 5; i++) {
+			accumulator.add(Long.MAX_VALUE);
+			expected = expected.add(LONG_MAX);
+			assertEquals(expected, accumulator.toBigInteger());
+		}
+
+		for (int i = 0; i < 5; i++) {
+			accumulator.subtract(Long.MAX_VALUE);
+			expected = expected.subtract(LONG_MAX);
+			assertEquals(expected, accumulator.toBigInteger());
+		}
+
+		assertEquals(0, accumulator.signum());
+	}
+
+	@Test
+	public void addProduct() {
+		long[] factors = {0L, 1L, 2L, 3L, 0xFFFF_FFFFL, 0x1_0000_0000L, Long.MAX_VALUE};
+
+		for (long a : factors) {
+			for (long b : factors) {
+				EmcAccumulator accumulator = new EmcAccumulator(Long.MAX_VALUE);
+				accumulator.addProduct(a, b);
+				BigInteger expected = LONG_MAX.add(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)));
+				assertEquals(expected, accumulator.toBigInteger(), "MAX + " + a + " * " + b);
+			}
+		}
+	}
+
+	@Test
+	public void randomMatchesBigInteger() {
+		Random random = new Random(1234L);
+		EmcAccumulator accumulator = new EmcAccumulator();
+		BigInteger expected = BigInteger.ZERO;
+
+		for (int i = 0; i < 100_000; i++) {
+			long value = random.nextLong();
+
+			if (random.nextBoolean()) {
+				accumulator.add(value);
+				expected = expected.add(BigInteger.valueOf(value));
+			} else {
+				accumulator.subtract(value);
+				expected = expected.subtract(BigInteger.valueOf(value));
+			}
+
+			assertEquals(expected, accumulator.toBigInteger());
+			assertEquals(expected.signum(), accumulator.signum());
+			assertEquals(expected.compareTo(BigInteger.valueOf(value)), Integer.signum(accumulator.compareTo(value)));
+		}
+	}
+
+	@Test
+	public void parseAndToStringRoundTrip() {
+		for (BigInteger start : startValues()) {
+			for (long value : EDGES) {
+				BigInteger expected = start.add(BigInteger.valueOf(value));
+				EmcAccumulator accumulator = of(expected);
+				assertEquals(expected.toString(), accumulator.toString());
+
+				EmcAccumulator parsed = EmcAccumulator.parse(accumulator.toString());
+				assertEquals(accumulator, parsed);
+				assertEquals(expected, parsed.toBigInteger());
+			}
+		}
+
+		assertEquals(BigInteger.ZERO, EmcAccumulator.parse("").toBigInteger());
+		assertEquals(BigInteger.ZERO, EmcAccumulator.parse("0").toBigInteger());
+	}
+
+	@Test
+	public void setClampsTo128Bits() {
+		BigInteger max = BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE);
+		BigInteger min = BigInteger.ONE.shiftLeft(127).negate();
+
+		assertEquals(max, of(max).toBigInteger());
+		assertEquals(min, of(min).toBigInteger());
+		assertEquals(max, of(max.add(BigInteger.ONE)).toBigInteger());
+		assertEquals(max, of(BigInteger.ONE.shiftLeft(200)).toBigInteger());
+	}
+
+	@Test
+	public void longValueSaturated() {
+		for (BigInteger start : startValues()) {
+			for (long value : EDGES) {
+				BigInteger exact = start.add(BigInteger.valueOf(value));
+				long expected = exact.compareTo(LONG_MAX) > 0 ? Long.MAX_VALUE : exact.compareTo(LONG_MIN) < 0 ? Long.MIN_VALUE : exact.longValue();
+				assertEquals(expected, of(exact).longValueSaturated(), exact.toString());
+			}
+		}
+	}
+}